@@ -0,0 +1,582 @@
+import java.util.Arrays;
+
+/**
+ * ArrayFibonacciHeap
+ *
+ * An implementation of a Fibonacci Heap over integers which keeps its nodes in parallel arrays
+ * (struct of arrays) instead of HeapNode objects.
+ * A node is identified by an int handle - its index in the arrays. The links between nodes
+ * (parent, child, next, prev) are handles as well, with NONE standing for null.
+ * Slots of deleted nodes are reused by later inserts through a free list threaded over the next array.
+ * A handle is valid from the insert which returned it until its node is deleted.
+ */
+public class ArrayFibonacciHeap {
+    public static final int NONE = -1;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] keys;
+    private int[] ranks;
+    private boolean[] marks;
+    private int[] parents;
+    private int[] children;
+    private int[] nexts;
+    private int[] prevs;
+    private int used = 0;  //number of slots ever handed out
+    private int free = NONE;  //first slot of the free list
+
+    private int head = NONE;
+    private int tail = NONE;
+    private int min = NONE;
+    private int size = 0;
+    private int treeCount = 0;
+    private int markedCount = 0;
+    private int[] buckets;  //reusable consolidate buckets
+
+    public ArrayFibonacciHeap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ArrayFibonacciHeap(int capacity) {
+        capacity = Math.max(1, capacity);
+        this.keys = new int[capacity];
+        this.ranks = new int[capacity];
+        this.marks = new boolean[capacity];
+        this.parents = new int[capacity];
+        this.children = new int[capacity];
+        this.nexts = new int[capacity];
+        this.prevs = new int[capacity];
+        this.buckets = new int[rankBound(capacity)];
+        Arrays.fill(this.buckets, NONE);
+    }
+
+   /**
+    * public boolean isEmpty()
+    *
+    * Returns true if and only if the heap is empty.
+    *
+    * complexity : O(1)
+    */
+    public boolean isEmpty() {
+        return this.head == NONE;
+    }
+
+   /**
+    * public void clear()
+    *
+    * Empties the heap and keeps the arrays, so the next inserts reuse the slots from the first one.
+    * Every handle becomes invalid.
+    *
+    * complexity : O(1)
+    */
+    public void clear() {
+        this.reset();
+    }
+
+   /**
+    * public int insert(int key)
+    *
+    * Creates a node which contains the given key, and inserts it into the heap.
+    *
+    * Returns the handle of the new node.
+    *
+    * complexity : O(1) amortized
+    */
+    public int insert(int key) {
+        int x = this.allocate();
+        this.keys[x] = key;
+        this.ranks[x] = 0;
+        this.marks[x] = false;
+        this.parents[x] = NONE;
+        this.children[x] = NONE;
+
+        //insert node to head of linked roots list
+        this.prevs[x] = NONE;
+        this.nexts[x] = this.head;
+        if (this.head != NONE) {
+            this.prevs[this.head] = x;
+        } else {
+            this.tail = x;
+        }
+        this.head = x;
+
+        this.size++;
+        this.treeCount++;
+
+        //update min if necessary
+        if (this.min == NONE || key < this.keys[this.min]) {
+            this.min = x;
+        }
+        return x;
+    }
+
+   /**
+    * public void deleteMin()
+    *
+    * Deletes the node containing the minimum key. Its handle becomes invalid.
+    *
+    * complexity : O(n)
+    */
+    public void deleteMin() {
+        if (this.min == NONE) {
+            return;
+        }
+        int z = this.min;
+        int prev = this.prevs[z];
+        int next = this.nexts[z];
+        int child = this.children[z];
+
+        if (child != NONE) {
+            //update min children to be independent trees, and put them in place of min
+            int last = child;
+            for (int x = child; x != NONE; x = this.nexts[x]) {
+                this.parents[x] = NONE;
+                if (this.marks[x]) {
+                    this.marks[x] = false;
+                    this.markedCount--;
+                }
+                last = x;
+            }
+            this.prevs[child] = prev;
+            if (prev != NONE) {
+                this.nexts[prev] = child;
+            } else {
+                this.head = child;
+            }
+            this.nexts[last] = next;
+            if (next != NONE) {
+                this.prevs[next] = last;
+            } else {
+                this.tail = last;
+            }
+        } else {  //if min has no children - connect its left and right brothers
+            if (prev != NONE) {
+                this.nexts[prev] = next;
+            } else {
+                this.head = next;
+            }
+            if (next != NONE) {
+                this.prevs[next] = prev;
+            } else {
+                this.tail = prev;
+            }
+        }
+
+        this.release(z);
+        this.size--;
+
+        //consolidate heap - also updates heap tree count and min
+        if (this.isEmpty()) {
+            this.min = NONE;
+            this.treeCount = 0;
+        } else {
+            this.consolidate();
+        }
+    }
+
+    /**
+     * private void consolidate()
+     *
+     * Successive Linking process on heap after deleteMin, which also finds the new min and tree count.
+     * pre : heap is not empty
+     *
+     * complexity : O(n)
+     */
+    private void consolidate() {
+        if (this.buckets.length < rankBound(this.size)) {
+            this.buckets = new int[rankBound(this.size)];
+            Arrays.fill(this.buckets, NONE);
+        }
+        int[] buckets = this.buckets;
+        int maxRank = 0;
+
+        //Successive Linking
+        int curr = this.head;
+        while (curr != NONE) {
+            int nextTree = this.nexts[curr];
+            this.prevs[curr] = NONE;
+            int currRank = this.ranks[curr];
+
+            //if the i place in the array is not empty - link the trees. smaller key is the root.
+            while (buckets[currRank] != NONE) {
+                int other = buckets[currRank];
+                if (this.keys[other] < this.keys[curr]) {
+                    this.link(curr, other);
+                    curr = other;
+                } else {
+                    this.link(other, curr);
+                }
+                buckets[currRank] = NONE;
+                currRank = this.ranks[curr];
+            }
+            buckets[currRank] = curr;
+            if (currRank > maxRank) {
+                maxRank = currRank;
+            }
+            curr = nextTree;
+        }
+
+        //build the new linked list, find the new min and count the trees, and empty the buckets
+        int currTree = NONE;
+        int currMin = NONE;
+        int trees = 0;
+        for (int i = 0; i <= maxRank; i++) {
+            int tree = buckets[i];
+            if (tree != NONE) {
+                if (currTree == NONE) {
+                    this.head = tree;
+                    currMin = tree;
+                } else {
+                    this.nexts[currTree] = tree;
+                    if (this.keys[tree] < this.keys[currMin]) {
+                        currMin = tree;
+                    }
+                }
+                this.prevs[tree] = currTree;
+                currTree = tree;
+                trees++;
+                buckets[i] = NONE;
+            }
+        }
+        this.tail = currTree;
+        this.nexts[currTree] = NONE;
+        this.min = currMin;
+        this.treeCount = trees;
+    }
+
+    /**
+     * private void link(int child, int parent)
+     *
+     * hangs the tree rooted at child under parent.
+     *
+     * complexity : O(1)
+     */
+    private void link(int child, int parent) {
+        int firstChild = this.children[parent];
+        this.parents[child] = parent;
+        this.prevs[child] = NONE;
+        this.nexts[child] = firstChild;
+        if (firstChild != NONE) {
+            this.prevs[firstChild] = child;
+        }
+        this.children[parent] = child;
+        this.ranks[parent]++;
+    }
+
+   /**
+    * public int findMin()
+    *
+    * Returns the handle of the node whose key is minimal, or NONE if the heap is empty.
+    *
+    * complexity : O(1)
+    */
+    public int findMin() {
+        return this.min;
+    }
+
+   /**
+    * public int getKey(int x)
+    *
+    * Returns the key of the node with handle x.
+    *
+    * complexity : O(1)
+    */
+    public int getKey(int x) {
+        return this.keys[x];
+    }
+
+   /**
+    * public int size()
+    *
+    * Returns the number of elements in the heap.
+    *
+    * complexity : O(1)
+    */
+    public int size() {
+        return this.size;
+    }
+
+   /**
+    * public int getTreeCount()
+    *
+    * return the number of trees in the heap
+    *
+    * complexity : O(1)
+    */
+    public int getTreeCount() {
+        return this.treeCount;
+    }
+
+   /**
+    * public int getMarkedCount()
+    *
+    * return the number of marked nodes
+    *
+    * complexity : O(1)
+    */
+    public int getMarkedCount() {
+        return this.markedCount;
+    }
+
+   /**
+    * public int potential()
+    *
+    * Potential = #trees + 2*#marked
+    *
+    * complexity : O(1)
+    */
+    public int potential() {
+        return this.treeCount + 2 * this.markedCount;
+    }
+
+   /**
+    * public void decreaseKey(int x, int delta)
+    *
+    * Decreases the key of the node with handle x by a non-negative value delta.
+    *
+    * complexity : O(log n) amortized O(1)
+    */
+    public void decreaseKey(int x, int delta) {
+        this.keys[x] -= delta;
+        int parent = this.parents[x];
+        if (parent != NONE && this.keys[parent] > this.keys[x]) {
+            this.cascadingCuts(x, parent);
+        } else if (parent == NONE && this.keys[x] < this.keys[this.min]) {
+            this.min = x;
+        }
+    }
+
+   /**
+    * public void delete(int x)
+    *
+    * Deletes the node with handle x from the heap. The handle becomes invalid.
+    * x is cut to the root list and deleted as the min, without changing its key.
+    *
+    * complexity : O(n)
+    */
+    public void delete(int x) {
+        if (this.parents[x] != NONE) {
+            this.cascadingCuts(x, this.parents[x]);
+        }
+        this.min = x;
+        this.deleteMin();
+    }
+
+    /**
+     * private void cascadingCuts(int x, int y)
+     *
+     * cut x from its parent y, then go up cutting marked parents until reaching an unmarked node
+     * (which is marked) or a root.
+     *
+     * complexity : O(log n)
+     */
+    private void cascadingCuts(int x, int y) {
+        while (true) {
+            this.cut(x, y);
+            if (this.parents[y] == NONE) {
+                return;
+            }
+            if (!this.marks[y]) {
+                this.marks[y] = true;
+                this.markedCount++;
+                return;
+            }
+            x = y;
+            y = this.parents[y];
+        }
+    }
+
+    /**
+     * private void cut(int x, int y)
+     *
+     * cut x from its parent y and make it a root
+     *
+     * complexity : O(1)
+     */
+    private void cut(int x, int y) {
+        //remove x from the children list of y
+        int prev = this.prevs[x];
+        int next = this.nexts[x];
+        if (prev != NONE) {
+            this.nexts[prev] = next;
+        } else {
+            this.children[y] = next;
+        }
+        if (next != NONE) {
+            this.prevs[next] = prev;
+        }
+        this.ranks[y]--;
+
+        //x becomes a root
+        this.parents[x] = NONE;
+        if (this.marks[x]) {
+            this.marks[x] = false;
+            this.markedCount--;
+        }
+        this.prevs[x] = NONE;
+        this.nexts[x] = this.head;
+        this.prevs[this.head] = x;
+        this.head = x;
+        this.treeCount++;
+
+        if (this.keys[x] < this.keys[this.min]) {
+            this.min = x;
+        }
+    }
+
+   /**
+    * public int meld(ArrayFibonacciHeap heap2)
+    *
+    * Moves all the nodes of heap2 into the current heap, and empties heap2.
+    * The nodes are copied into this heap's arrays, so a handle h of heap2 becomes h + offset,
+    * where offset is the returned value. Melding a heap with itself throws IllegalArgumentException.
+    *
+    * complexity : O(capacity used by heap2)
+    */
+    public int meld(ArrayFibonacciHeap heap2) {
+        if (heap2 == this) {
+            throw new IllegalArgumentException("a heap cannot be melded with itself");
+        }
+        int offset = this.used;
+        int count = heap2.used;
+        this.ensureCapacity(offset + count);
+
+        System.arraycopy(heap2.keys, 0, this.keys, offset, count);
+        System.arraycopy(heap2.ranks, 0, this.ranks, offset, count);
+        System.arraycopy(heap2.marks, 0, this.marks, offset, count);
+        for (int i = 0; i < count; i++) {
+            this.parents[offset + i] = shift(heap2.parents[i], offset);
+            this.children[offset + i] = shift(heap2.children[i], offset);
+            this.nexts[offset + i] = shift(heap2.nexts[i], offset);
+            this.prevs[offset + i] = shift(heap2.prevs[i], offset);
+        }
+        this.used += count;
+
+        //move the free slots of heap2 to the free list of this heap
+        for (int f = heap2.free; f != NONE; f = heap2.nexts[f]) {
+            this.nexts[offset + f] = this.free;
+            this.free = offset + f;
+        }
+
+        //link the root list of heap2 after the tail of the current list
+        if (!heap2.isEmpty()) {
+            int head2 = heap2.head + offset;
+            if (this.isEmpty()) {
+                this.head = head2;
+                this.min = heap2.min + offset;
+            } else {
+                this.nexts[this.tail] = head2;
+                this.prevs[head2] = this.tail;
+                if (heap2.keys[heap2.min] < this.keys[this.min]) {
+                    this.min = heap2.min + offset;
+                }
+            }
+            this.tail = heap2.tail + offset;
+        }
+        this.size += heap2.size;
+        this.treeCount += heap2.treeCount;
+        this.markedCount += heap2.markedCount;
+
+        heap2.reset();
+        return offset;
+    }
+
+   /**
+    * public int[] countersRep()
+    *
+    * Return an array of counters. The i-th entry contains the number of trees of order i in the heap.
+    *
+    * complexity : O(n)
+    */
+    public int[] countersRep() {
+        int maxRank = -1;
+        for (int x = this.head; x != NONE; x = this.nexts[x]) {
+            maxRank = Math.max(maxRank, this.ranks[x]);
+        }
+        int[] counterRep = new int[maxRank + 1];
+        for (int x = this.head; x != NONE; x = this.nexts[x]) {
+            counterRep[this.ranks[x]]++;
+        }
+        return counterRep;
+    }
+
+    /**
+     * private int allocate()
+     *
+     * returns a free slot, from the free list if possible, growing the arrays if needed.
+     *
+     * complexity : O(1) amortized
+     */
+    private int allocate() {
+        if (this.free != NONE) {
+            int x = this.free;
+            this.free = this.nexts[x];
+            return x;
+        }
+        this.ensureCapacity(this.used + 1);
+        return this.used++;
+    }
+
+    /**
+     * private void release(int x)
+     *
+     * returns the slot x to the free list.
+     *
+     * complexity : O(1)
+     */
+    private void release(int x) {
+        this.parents[x] = NONE;
+        this.children[x] = NONE;
+        this.prevs[x] = NONE;
+        this.nexts[x] = this.free;
+        this.free = x;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= this.keys.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, this.keys.length * 2);
+        this.keys = Arrays.copyOf(this.keys, newCapacity);
+        this.ranks = Arrays.copyOf(this.ranks, newCapacity);
+        this.marks = Arrays.copyOf(this.marks, newCapacity);
+        this.parents = Arrays.copyOf(this.parents, newCapacity);
+        this.children = Arrays.copyOf(this.children, newCapacity);
+        this.nexts = Arrays.copyOf(this.nexts, newCapacity);
+        this.prevs = Arrays.copyOf(this.prevs, newCapacity);
+    }
+
+    /**
+     * private void reset()
+     *
+     * empties the heap, keeping its arrays.
+     *
+     * complexity : O(1)
+     */
+    private void reset() {
+        this.used = 0;
+        this.free = NONE;
+        this.head = NONE;
+        this.tail = NONE;
+        this.min = NONE;
+        this.size = 0;
+        this.treeCount = 0;
+        this.markedCount = 0;
+    }
+
+    private static int shift(int x, int offset) {
+        return x == NONE ? NONE : x + offset;
+    }
+
+    /**
+     * private static int rankBound(int n)
+     *
+     * Returns a number of buckets that is larger than the maximal rank of a tree in a heap of n nodes
+     * (see FibonacciHeap.rankBound).
+     *
+     * complexity : O(1)
+     */
+    private static int rankBound(int n) {
+        int bits = 32 - Integer.numberOfLeadingZeros(n);
+        return bits + (bits >> 1) + 1;
+    }
+}
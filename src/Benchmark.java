@@ -0,0 +1,1631 @@
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Benchmark
+ *
+ * Warmed-up micro benchmarks for the FibonacciHeap operations.
+ * Every scenario is run for each workload shape and heap size, first for a number of untimed
+ * warmup rounds (so the JIT has compiled the hot paths) and then for a number of measured rounds.
+ * For every combination the harness reports throughput (ops/s), the 99th percentile latency of a
+ * single operation and the number of bytes allocated per operation by the benchmark thread.
+ *
+ * usage : java Benchmark [scenario ...]
+ *   -Dbench.maxSize=N    largest heap size to run (sizes are 1e3..1e7, default 1e6)
+ *   -Dbench.warmup=N     warmup rounds per combination (default 3)
+ *   -Dbench.rounds=N     measured rounds per combination (default 5)
+ *   -Dbench.shapes=a,b   workload shapes to run (default sorted,reverse,random,dijkstra)
+ */
+public class Benchmark {
+    static final int[] SIZES = {1000, 10000, 100000, 1000000, 10000000};
+    static final String[] SHAPES = {"sorted", "reverse", "random", "dijkstra"};
+    static final long SEED = 42;
+
+    /** results are written here so the JIT cannot drop the measured work */
+    static volatile long sink;
+
+    static final Map<String, Scenario> SCENARIOS = new LinkedHashMap<>();
+
+    static final int[] THREADS = {1, 2, 4, 8, 16, 32, 64};
+
+    static {
+        SCENARIOS.put("insert", new InsertScenario());
+        SCENARIOS.put("insertAll", new InsertAllScenario());
+        SCENARIOS.put("deleteMin", new DeleteMinScenario(false));
+        SCENARIOS.put("deleteMinListener", new DeleteMinScenario(true));
+        SCENARIOS.put("deleteMinBatch16", new DeleteMinBatchScenario(16));
+        SCENARIOS.put("deleteMinBatch256", new DeleteMinBatchScenario(256));
+        SCENARIOS.put("deleteMinBatch4096", new DeleteMinBatchScenario(4096));
+        SCENARIOS.put("deleteMinAfterBurst", new DeleteMinAfterBurstScenario());
+        SCENARIOS.put("decreaseKey", new DecreaseKeyScenario());
+        SCENARIOS.put("indexedDecreaseKey", new IndexedDecreaseKeyScenario());
+        SCENARIOS.put("delete", new DeleteScenario());
+        SCENARIOS.put("cancelHeavy", new CancelHeavyScenario(false));
+        SCENARIOS.put("cancelHeavyLazy", new CancelHeavyScenario(true));
+        SCENARIOS.put("rateLimiterUpdateKey", new RateLimiterScenario(false));
+        SCENARIOS.put("rateLimiterReinsert", new RateLimiterScenario(true));
+        SCENARIOS.put("churn", new ChurnScenario(0));
+        SCENARIOS.put("churnPooled", new ChurnScenario(1024));
+        for (boolean dijkstra : new boolean[]{false, true}) {
+            String workload = dijkstra ? "Dijkstra" : "Sort";
+            SCENARIOS.put("suiteFibonacci" + workload, new HeapSuiteScenario<>(FibonacciHeap::new, dijkstra));
+            SCENARIOS.put("suitePairing" + workload, new HeapSuiteScenario<>(PairingHeap::new, dijkstra));
+            SCENARIOS.put("suiteRankPairing" + workload, new HeapSuiteScenario<>(RankPairingHeap::new, dijkstra));
+            SCENARIOS.put("suitePriorityQueue" + workload, new PriorityQueueSuiteScenario(dijkstra));
+        }
+        for (boolean powerLaw : new boolean[]{false, true}) {
+            String graph = powerLaw ? "PowerLaw" : "Road";
+            SCENARIOS.put("dijkstraFibonacci" + graph, new ShortestPathScenario(powerLaw, ShortestPathScenario.FIBONACCI));
+            SCENARIOS.put("dijkstraLazyBinary" + graph, new ShortestPathScenario(powerLaw, ShortestPathScenario.LAZY_BINARY));
+            SCENARIOS.put("primFibonacci" + graph, new ShortestPathScenario(powerLaw, ShortestPathScenario.PRIM));
+        }
+        SCENARIOS.put("smallHeapsNew", new SmallHeapsScenario(SmallHeapsScenario.NEW));
+        SCENARIOS.put("smallHeapsClear", new SmallHeapsScenario(SmallHeapsScenario.CLEAR));
+        SCENARIOS.put("smallHeapsClearPooled", new SmallHeapsScenario(SmallHeapsScenario.CLEAR_POOLED));
+        SCENARIOS.put("smallHeapsArrayClear", new SmallHeapsScenario(SmallHeapsScenario.ARRAY_CLEAR));
+        SCENARIOS.put("deepChain64", new DeepChainScenario(64));
+        SCENARIOS.put("deepChain4096", new DeepChainScenario(4096));
+        SCENARIOS.put("deepChainN", new DeepChainScenario(0));
+        SCENARIOS.put("meld", new MeldScenario());
+        SCENARIOS.put("meldShards1024", new MeldShardsScenario(false));
+        SCENARIOS.put("meldAllShards1024", new MeldShardsScenario(true));
+        SCENARIOS.put("kMin", new KMinScenario());
+        SCENARIOS.put("kMinForest", new KMinForestScenario());
+        SCENARIOS.put("arrayInsert", new ArrayInsertScenario());
+        SCENARIOS.put("arrayDeleteMin", new ArrayDeleteMinScenario());
+        SCENARIOS.put("arrayDecreaseKey", new ArrayDecreaseKeyScenario());
+        SCENARIOS.put("offHeapDeleteMin", new OffHeapDeleteMinScenario());
+        SCENARIOS.put("gcPauseObjectHeap", new GcPauseScenario(false));
+        SCENARIOS.put("gcPauseOffHeap", new GcPauseScenario(true));
+        for (int threads : THREADS) {
+            SCENARIOS.put("lockedHeap" + threads, new ConcurrentScenario(threads, ConcurrentScenario.LOCKED));
+            SCENARIOS.put("concurrentStrict" + threads, new ConcurrentScenario(threads, ConcurrentScenario.STRICT));
+            SCENARIOS.put("concurrentRelaxed" + threads, new ConcurrentScenario(threads, ConcurrentScenario.RELAXED));
+        }
+        for (int threads : THREADS) {
+            SCENARIOS.put("dijkstraBatch" + threads, new DijkstraBatchScenario(threads));
+        }
+        SCENARIOS.put("payloadSideMap", new PayloadSideMapScenario());
+        SCENARIOS.put("payloadInNode", new PayloadInNodeScenario());
+    }
+
+    public static void main(String[] args) {
+        int maxSize = Integer.getInteger("bench.maxSize", 1000000);
+        int warmup = Integer.getInteger("bench.warmup", 3);
+        int rounds = Integer.getInteger("bench.rounds", 5);
+        String[] shapes = System.getProperty("bench.shapes", String.join(",", SHAPES)).split(",");
+        String[] names = args.length > 0 ? args : SCENARIOS.keySet().toArray(new String[0]);
+
+        System.out.println(String.format("%-28s %-9s %10s %14s %12s %12s",
+                "scenario", "shape", "n", "ops/s", "p99(ns)", "alloc(B/op)"));
+        for (String name : names) {
+            Scenario scenario = SCENARIOS.get(name);
+            if (scenario == null) {
+                System.out.println("unknown scenario : " + name);
+                continue;
+            }
+            for (String shape : shapes) {
+                for (int n : SIZES) {
+                    if (n > maxSize) {
+                        break;
+                    }
+                    Result result;
+                    try {
+                        result = measure(scenario, shape, n, warmup, rounds);
+                    } catch (RuntimeException | StackOverflowError e) {
+                        System.out.println(String.format("%-28s %-9s %10d   failed : %s", name, shape, n, e));
+                        break;
+                    }
+                    System.out.println(String.format("%-28s %-9s %10d %14.0f %12d %12.1f",
+                            name, shape, n, result.opsPerSecond, result.p99, result.bytesPerOp));
+                }
+            }
+        }
+    }
+
+    /**
+     * static Result measure(Scenario scenario, String shape, int n, int warmup, int rounds)
+     *
+     * runs warmup rounds and then measured rounds of scenario, and aggregates the measured rounds.
+     * setup is never part of the measurement.
+     */
+    static Result measure(Scenario scenario, String shape, int n, int warmup, int rounds) {
+        int[] keys = keys(n, shape);
+        for (int i = 0; i < warmup; i++) {
+            scenario.setup(n, shape, keys);
+            scenario.run(new Recorder(n));
+        }
+
+        long totalOps = 0;
+        long totalNanos = 0;
+        long totalBytes = 0;
+        Recorder recorder = new Recorder(n * (long) rounds);
+        for (int i = 0; i < rounds; i++) {
+            scenario.setup(n, shape, keys);
+            long bytesBefore = allocatedBytes();
+            long start = System.nanoTime();
+            int ops = scenario.run(recorder);
+            totalNanos += System.nanoTime() - start;
+            totalBytes += allocatedBytes() - bytesBefore;
+            totalOps += ops;
+        }
+
+        Result result = new Result();
+        result.opsPerSecond = totalOps * 1e9 / Math.max(1, totalNanos);
+        result.p99 = recorder.percentile(0.99);
+        result.bytesPerOp = totalOps == 0 ? 0 : (double) totalBytes / totalOps;
+        return result;
+    }
+
+    /**
+     * static int[] keys(int n, String shape)
+     *
+     * returns n keys in the order of the given workload shape.
+     * "dijkstra" keys are random tentative distances in [n, 4n), leaving room for decreases.
+     */
+    static int[] keys(int n, String shape) {
+        int[] keys = new int[n];
+        Random random = new Random(SEED);
+        switch (shape) {
+            case "sorted":
+                for (int i = 0; i < n; i++) {
+                    keys[i] = i;
+                }
+                break;
+            case "reverse":
+                for (int i = 0; i < n; i++) {
+                    keys[i] = n - 1 - i;
+                }
+                break;
+            case "random":
+                for (int i = 0; i < n; i++) {
+                    keys[i] = i;
+                }
+                shuffle(keys, random);
+                break;
+            case "dijkstra":
+                for (int i = 0; i < n; i++) {
+                    keys[i] = n + random.nextInt(3 * n);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("unknown shape : " + shape);
+        }
+        return keys;
+    }
+
+    static void shuffle(int[] array, Random random) {
+        for (int i = array.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = array[i];
+            array[i] = array[j];
+            array[j] = temp;
+        }
+    }
+
+    static int[] permutation(int n, Random random) {
+        int[] perm = new int[n];
+        for (int i = 0; i < n; i++) {
+            perm[i] = i;
+        }
+        shuffle(perm, random);
+        return perm;
+    }
+
+    /**
+     * static long allocatedBytes()
+     *
+     * returns the number of bytes allocated so far by the current thread.
+     */
+    static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * interface Scenario
+     *
+     * setup prepares the state of one round and is not measured.
+     * run executes the measured operations, records the latency of each one into the recorder
+     * and returns the number of operations it executed.
+     */
+    interface Scenario {
+        void setup(int n, String shape, int[] keys);
+
+        int run(Recorder recorder);
+    }
+
+    static class Result {
+        double opsPerSecond;
+        long p99;
+        double bytesPerOp;
+    }
+
+    /**
+     * static class Recorder
+     *
+     * keeps a bounded, evenly strided sample of operation latencies (in nanoseconds).
+     * the sample buffer is allocated up front so recording does not allocate.
+     */
+    static class Recorder {
+        private static final int CAPACITY = 1 << 18;
+        private final long[] samples;
+        private final long stride;
+        private long calls = 0;
+        private int count = 0;
+
+        Recorder(long expectedOps) {
+            this.samples = new long[CAPACITY];
+            this.stride = Math.max(1, (expectedOps + CAPACITY - 1) / CAPACITY);
+        }
+
+        void record(long nanos) {
+            if (this.calls++ % this.stride == 0 && this.count < this.samples.length) {
+                this.samples[this.count++] = nanos;
+            }
+        }
+
+        long percentile(double p) {
+            if (this.count == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(this.samples, this.count);
+            Arrays.sort(sorted);
+            return sorted[(int) Math.min(this.count - 1, Math.ceil(p * this.count) - 1)];
+        }
+    }
+
+    static class InsertScenario implements Scenario {
+        private FibonacciHeap heap;
+        private int[] keys;
+
+        public void setup(int n, String shape, int[] keys) {
+            this.heap = new FibonacciHeap();
+            this.keys = keys;
+        }
+
+        public int run(Recorder recorder) {
+            for (int key : this.keys) {
+                long t = System.nanoTime();
+                this.heap.insert(key);
+                recorder.record(System.nanoTime() - t);
+            }
+            return this.keys.length;
+        }
+    }
+
+    /**
+     * the same keys as InsertScenario, loaded with a single FibonacciHeap.fromArray call.
+     * an operation is one inserted key.
+     */
+    static class InsertAllScenario implements Scenario {
+        private int[] keys;
+
+        public void setup(int n, String shape, int[] keys) {
+            this.keys = keys;
+        }
+
+        public int run(Recorder recorder) {
+            long t = System.nanoTime();
+            FibonacciHeap heap = FibonacciHeap.fromArray(this.keys);
+            recorder.record(System.nanoTime() - t);
+            sink = heap.size();
+            return this.keys.length;
+        }
+    }
+
+    /**
+     * drains the heap with deleteMin. with a listener, a HeapMetrics is set on the heap, which records
+     * only when the JVM runs with -Dfibheap.metrics=true - so this scenario run with and without the
+     * flag gives the cost of the listener, and without a listener the cost of the disabled checks.
+     */
+    static class DeleteMinScenario implements Scenario {
+        private final boolean withListener;
+        private FibonacciHeap heap;
+
+        DeleteMinScenario(boolean withListener) {
+            this.withListener = withListener;
+        }
+
+        public void setup(int n, String shape, int[] keys) {
+            this.heap = new FibonacciHeap();
+            if (this.withListener) {
+                this.heap.setListener(new HeapMetrics());
+            }
+            for (int key : keys) {
+                this.heap.insert(key);
+            }
+        }
+
+        public int run(Recorder recorder) {
+            int ops = 0;
+            while (!this.heap.isEmpty()) {
+                long t = System.nanoTime();
+                this.heap.deleteMin();
+                recorder.record(System.nanoTime() - t);
+                ops++;
+            }
+            return ops;
+        }
+    }
+
+    /**
+     * drains the heap with deleteMinBatch into a reused array of k keys.
+     * an operation is one deleted key, so the numbers compare directly with DeleteMinScenario.
+     */
+    static class DeleteMinBatchScenario implements Scenario {
+        private final int[] batch;
+        private FibonacciHeap heap;
+
+        DeleteMinBatchScenario(int k) {
+            this.batch = new int[k];
+        }
+
+        public void setup(int n, String shape, int[] keys) {
+            this.heap = new FibonacciHeap();
+            for (int key : keys) {
+                this.heap.insert(key);
+            }
+        }
+
+        public int run(Recorder recorder) {
+            int ops = 0;
+            while (!this.heap.isEmpty()) {
+                long t = System.nanoTime();
+                ops += this.heap.deleteMinBatch(this.batch);
+                recorder.record(System.nanoTime() - t);
+            }
+            return ops;
+        }
+    }
+
+    /**
+     * the first deleteMin after a burst of n inserts, when every key is still its own root.
+     * one operation per round, so the cost is dominated by consolidating n roots.
+     */
+    static class DeleteMinAfterBurstScenario implements Scenario {
+        private FibonacciHeap heap;
+
+        public void setup(int n, String shape, int[] keys) {
+            this.heap = new FibonacciHeap();
+            for (int key : keys) {
+                this.heap.insert(key);
+            }
+        }
+
+        public int run(Recorder recorder) {
+            long t = System.nanoTime();
+            this.heap.deleteMin();
+            recorder.record(System.nanoTime() - t);
+            sink = this.heap.getTreeCount();
+            return 1;
+        }
+    }
+
+    /**
+     * decreases random nodes of a consolidated heap. every decrease lowers a node to a key in
+     * [min, key) so extraction order stays monotone and a node whose key is above the current
+     * minimum is known to still be in the heap.
+     * the "dijkstra" shape interleaves one deleteMin after every four decreases.
+     */
+    static class DecreaseKeyScenario implements Scenario {
+        private FibonacciHeap heap;
+        private FibonacciHeap.HeapNode[] nodes;
+        private int[] targets;
+        private boolean extract;
+
+        public void setup(int n, String shape, int[] keys) {
+            this.heap = new FibonacciHeap();
+            this.nodes = new FibonacciHeap.HeapNode[n];
+            for (int i = 0; i < n; i++) {
+                this.nodes[i] = this.heap.insert(keys[i] + n);
+            }
+            this.heap.deleteMin();
+            this.targets = permutation(n, new Random(SEED));
+            this.extract = shape.equals("dijkstra");
+        }
+
+        public int run(Recorder recorder) {
+            int ops = 0;
+            for (int i = 0; i < this.targets.length && !this.heap.isEmpty(); i++) {
+                if (this.extract && i % 5 == 4) {
+                    long t = System.nanoTime();
+                    this.heap.deleteMin();
+                    recorder.record(System.nanoTime() - t);
+                    ops++;
+                    continue;
+                }
+                FibonacciHeap.HeapNode node = this.nodes[this.targets[i]];
+                int gap = node.getKey() - this.heap.findMin().getKey();
+                if (gap > 0) {
+                    long t = System.nanoTime();
+                    this.heap.decreaseKey(node, 1 + (gap - 1) / 2);
+                    recorder.record(System.nanoTime() - t);
+                    ops++;
+                }
+            }
+            return ops;
+        }
+    }
+
+    static class DeleteScenario implements Scenario {
+        private FibonacciHeap heap;
+        private FibonacciHeap.HeapNode[] nodes;
+        private int[] order;
+        private FibonacciHeap.HeapNode removed;
+
+        public void setup(int n, String shape, int[] keys) {
+            this.heap = new FibonacciHeap();
+            this.nodes = new FibonacciHeap.HeapNode[n];
+            for (int i = 0; i < n; i++) {
+                this.nodes[i] = this.heap.insert(keys[i]);
+            }
+            this.removed = this.heap.findMin();
+            this.heap.deleteMin();
+            this.order = permutation(n, new Random(SEED));
+        }
+
+        public int run(Recorder recorder) {
+            int ops = 0;
+            for (int index : this.order) {
+                FibonacciHeap.HeapNode node = this.nodes[index];
+                if (node == this.removed) {
+                    continue;
+                }
+                long t = System.nanoTime();
+                this.heap.delete(node);
+                recorder.record(System.nanoTime() - t);
+                ops++;
+            }
+            return ops;
+        }
+    }
+
+    /**
+     * melds n/16 heaps of 16 keys each into the first one.
+     */
+    static class MeldScenario implements Scenario {
+        private static final int SHARD = 16;
+        private FibonacciHeap[] heaps;
+
+        public void setup(int n, String shape, int[] keys) {
+            this.heaps = new FibonacciHeap[Math.max(1, n / SHARD)];
+            for (int i = 0; i < this.heaps.length; i++) {
+                this.heaps[i] = new FibonacciHeap();
+            }
+            for (int i = 0; i < n; i++) {
+                this.heaps[(i / SHARD) % this.heaps.length].insert(keys[i]);
+            }
+        }
+
+        public int run(Recorder recorder) {
+            for (int i = 1; i < this.heaps.length; i++) {
+                long t = System.nanoTime();
+                this.heaps[0].meld(this.heaps[i]);
+                recorder.record(System.nanoTime() - t);
+            }
+            return this.heaps.length - 1;
+        }
+    }
+
+    /**
+     * merges 1024 shard heaps holding n keys into an aggregator heap, with meld per shard or one meldAll,
+     * and takes the global min. One sample per merge.
+     */
+    static class MeldShardsScenario implements Scenario {
+        private static final int SHARDS = 1024;
+        private final boolean all;
+        private FibonacciHeap aggregator;
+        private FibonacciHeap[] shards;
+
+        MeldShardsScenario(boolean all) {
+            this.all = all;
+        }
+
+        public void setup(int n, String shape, int[] keys) {
+            this.aggregator = new FibonacciHeap();
+            this.shards = new FibonacciHeap[SHARDS];
+            for (int i = 0; i < SHARDS; i++) {
+                this.shards[i] = new FibonacciHeap();
+            }
+            for (int i = 0; i < n; i++) {
+                this.shards[i % SHARDS].insert(keys[i]);
+            }
+        }
+
+        public int run(Recorder recorder) {
+            long t = System.nanoTime();
+            if (this.all) {
+                this.aggregator.meldAll(this.shards);
+            } else {
+                for (FibonacciHeap shard : this.shards) {
+                    this.aggregator.meld(shard);
+                }
+            }
+            sink = this.aggregator.findMin().getKey();
+            recorder.record(System.nanoTime() - t);
+            return SHARDS;
+        }
+    }
+
+    /**
+     * queries the 100 smallest keys of a single-tree heap (the largest power of two <= n)
+     * once per 1000 elements.
+     */
+    static class KMinScenario implements Scenario {
+        private static final int K = 100;
+        private FibonacciHeap heap;
+        private int queries;
+
+        public void setup(int n, String shape, int[] keys) {
+            this.heap = new FibonacciHeap();
+            int treeSize = Integer.highestOneBit(n);
+            for (int i = 0; i < treeSize; i++) {
+                this.heap.insert(keys[i]);
+            }
+            this.heap.insert(Integer.MIN_VALUE);
+            this.heap.deleteMin();
+            this.queries = Math.max(1, n / 1000);
+        }
+
+        public int run(Recorder recorder) {
+            int k = Math.min(K, this.heap.size());
+            long checksum = 0;
+            for (int i = 0; i < this.queries; i++) {
+                long t = System.nanoTime();
+                checksum += FibonacciHeap.kMin(this.heap, k)[k - 1];
+                recorder.record(System.nanoTime() - t);
+            }
+            sink = checksum;
+            return this.queries;
+        }
+    }
+
+    /**
+     * queries the 100 smallest keys of a live heap with many trees: a consolidated heap of n keys
+     * plus n/100 keys inserted after the last deleteMin, once per 1000 elements.
+     */
+    static class KMinForestScenario implements Scenario {
+        private static final int K = 100;
+        private FibonacciHeap heap;
+        private int queries;
+
+        public void setup(int n, String shape, int[] keys) {
+            this.heap = new FibonacciHeap();
+            for (int key : keys) {
+                this.heap.insert(key);
+            }
+            this.heap.deleteMin();
+            for (int i = 0; i < n / 100; i++) {
+                this.heap.insert(keys[i]);
+            }
+            this.queries = Math.max(1, n / 1000);
+        }
+
+        public int run(Recorder recorder) {
+            long checksum = 0;
+            for (int i = 0; i < this.queries; i++) {
+                long t = System.nanoTime();
+                int[] kmin = FibonacciHeap.kMin(this.heap, K);
+                recorder.record(System.nanoTime() - t);
+                checksum += kmin[kmin.length - 1];
+            }
+            sink = checksum;
+            return this.queries;
+        }
+    }
+
+    /**
+     * inserts n keys with a payload and drains the heap, reading back the payload of every min.
+     * the payloads are kept in a HashMap next to the heap - the pattern ValueFibonacciHeap replaces.
+     * an operation is one insert or one deleteMin.
+     */
+    static class PayloadSideMapScenario implements Scenario {
+        private FibonacciHeap heap;
+        private HashMap<FibonacciHeap.HeapNode, Integer> values;
+        private int[] keys;
+        private Integer[] payloads;
+
+        public void setup(int n, String shape, int[] keys) {
+            this.heap = new FibonacciHeap();
+            this.values = new HashMap<>();
+            this.keys = keys;
+            this.payloads = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                this.payloads[i] = Integer.valueOf(i);
+            }
+        }
+
+        public int run(Recorder recorder) {
+            for (int i = 0; i < this.keys.length; i++) {
+                long t = System.nanoTime();
+                this.values.put(this.heap.insert(this.keys[i]), this.payloads[i]);
+                recorder.record(System.nanoTime() - t);
+            }
+            long checksum = 0;
+            while (!this.heap.isEmpty()) {
+                long t = System.nanoTime();
+                checksum += this.values.remove(this.heap.findMin());
+                this.heap.deleteMin();
+                recorder.record(System.nanoTime() - t);
+            }
+            sink = checksum;
+            return 2 * this.keys.length;
+        }
+    }
+
+    /**
+     * the same workload as PayloadSideMapScenario with the payloads stored in the nodes.
+     */
+    static class PayloadInNodeScenario implements Scenario {
+        private ValueFibonacciHeap<Integer> heap;
+        private int[] keys;
+        private Integer[] payloads;
+
+        public void setup(int n, String shape, int[] keys) {
+            this.heap = new ValueFibonacciHeap<>();
+            this.keys = keys;
+            this.payloads = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                this.payloads[i] = Integer.valueOf(i);
+            }
+        }
+
+        public int run(Recorder recorder) {
+            for (int i = 0; i < this.keys.length; i++) {
+                long t = System.nanoTime();
+                this.heap.insert(this.keys[i], this.payloads[i]);
+                recorder.record(System.nanoTime() - t);
+            }
+            long checksum = 0;
+            while (!this.heap.isEmpty()) {
+                long t = System.nanoTime();
+                checksum += this.heap.deleteMinValue();
+                recorder.record(System.nanoTime() - t);
+            }
+            sink = checksum;
+            return 2 * this.keys.length;
+        }
+    }
+
+    /**
+     * InsertScenario on ArrayFibonacciHeap. the heap starts with the default capacity, so the
+     * allocation per insert is the amortized cost of growing the arrays - the per-node footprint.
+     */
+    static class ArrayInsertScenario implements Scenario {
+        private ArrayFibonacciHeap heap;
+        private int[] keys;
+
+        public void setup(int n, String shape, int[] keys) {
+            this.heap = new ArrayFibonacciHeap();
+            this.keys = keys;
+        }
+
+        public int run(Recorder recorder) {
+            for (int key : this.keys) {
+                long t = System.nanoTime();
+                this.heap.insert(key);
+                recorder.record(System.nanoTime() - t);
+            }
+            return this.keys.length;
+        }
+    }
+
+    static class ArrayDeleteMinScenario implements Scenario {
+        private ArrayFibonacciHeap heap;
+
+        public void setup(int n, String shape, int[] keys) {
+            this.heap = new ArrayFibonacciHeap(n);
+            for (int key : keys) {
+                this.heap.insert(key);
+            }
+        }
+
+        public int run(Recorder recorder) {
+            int ops = 0;
+            while (!this.heap.isEmpty()) {
+                long t = System.nanoTime();
+                this.heap.deleteMin();
+                recorder.record(System.nanoTime() - t);
+                ops++;
+            }
+            return ops;
+        }
+    }
+
+    /**
+     * DecreaseKeyScenario on ArrayFibonacciHeap.
+     */
+    static class ArrayDecreaseKeyScenario implements Scenario {
+        private ArrayFibonacciHeap heap;
+        private int[] handles;
+        private int[] targets;
+        private boolean extract;
+
+        public void setup(int n, String shape, int[] keys) {
+            this.heap = new ArrayFibonacciHeap(n);
+            this.handles = new int[n];
+            for (int i = 0; i < n; i++) {
+                this.handles[i] = this.heap.insert(keys[i] + n);
+            }
+            this.heap.deleteMin();
+            this.targets = permutation(n, new Random(SEED));
+            this.extract = shape.equals("dijkstra");
+        }
+
+        public int run(Recorder recorder) {
+            int ops = 0;
+            for (int i = 0; i < this.targets.length && !this.heap.isEmpty(); i++) {
+                if (this.extract && i % 5 == 4) {
+                    long t = System.nanoTime();
+                    this.heap.deleteMin();
+                    recorder.record(System.nanoTime() - t);
+                    ops++;
+                    continue;
+                }
+                int handle = this.handles[this.targets[i]];
+                int gap = this.heap.getKey(handle) - this.heap.getKey(this.heap.findMin());
+                if (gap > 0) {
+                    long t = System.nanoTime();
+                    this.heap.decreaseKey(handle, 1 + (gap - 1) / 2);
+                    recorder.record(System.nanoTime() - t);
+                    ops++;
+                }
+            }
+            return ops;
+        }
+    }
+
+    static class OffHeapDeleteMinScenario implements Scenario {
+        private OffHeapFibonacciHeap heap;
+
+        public void setup(int n, String shape, int[] keys) {
+            this.heap = new OffHeapFibonacciHeap();
+            for (int key : keys) {
+                this.heap.insert(key);
+            }
+        }
+
+        public int run(Recorder recorder) {
+            int ops = 0;
+            while (!this.heap.isEmpty()) {
+                long t = System.nanoTime();
+                this.heap.deleteMin();
+                recorder.record(System.nanoTime() - t);
+                ops++;
+            }
+            return ops;
+        }
+    }
+
+    /**
+     * a full collection (System.gc()) while a consolidated heap of n keys is alive.
+     * the pause grows with the number of HeapNode objects, and stays flat for the off-heap heap.
+     * one operation per round - the p99 column is the pause.
+     */
+    static class GcPauseScenario implements Scenario {
+        private final boolean offHeap;
+        private Object heap;
+
+        GcPauseScenario(boolean offHeap) {
+            this.offHeap = offHeap;
+        }
+
+        public void setup(int n, String shape, int[] keys) {
+            this.heap = null;
+            if (this.offHeap) {
+                OffHeapFibonacciHeap heap = new OffHeapFibonacciHeap();
+                for (int key : keys) {
+                    heap.insert(key);
+                }
+                heap.deleteMin();
+                this.heap = heap;
+            } else {
+                FibonacciHeap heap = new FibonacciHeap();
+                for (int key : keys) {
+                    heap.insert(key);
+                }
+                heap.deleteMin();
+                this.heap = heap;
+            }
+        }
+
+        public int run(Recorder recorder) {
+            long t = System.nanoTime();
+            System.gc();
+            recorder.record(System.nanoTime() - t);
+            this.heap = null;  //do not keep the heap alive while other scenarios run
+            return 1;
+        }
+    }
+
+    /**
+     * a heap prefilled with n keys, on which every thread runs n / threads pairs of insert and
+     * delete-min. LOCKED is one FibonacciHeap behind a single lock, STRICT and RELAXED are
+     * ConcurrentFibonacciHeap.deleteMin and pollApproxMin.
+     * an operation is one insert or one delete-min. only the first thread records latencies.
+     */
+    static class ConcurrentScenario implements Scenario {
+        static final int LOCKED = 0;
+        static final int STRICT = 1;
+        static final int RELAXED = 2;
+
+        private final int threads;
+        private final int mode;
+        private FibonacciHeap lockedHeap;
+        private ConcurrentFibonacciHeap concurrentHeap;
+        private int[] keys;
+
+        ConcurrentScenario(int threads, int mode) {
+            this.threads = threads;
+            this.mode = mode;
+        }
+
+        public void setup(int n, String shape, int[] keys) {
+            this.keys = keys;
+            if (this.mode == LOCKED) {
+                this.lockedHeap = FibonacciHeap.fromArray(keys);
+            } else {
+                this.concurrentHeap = new ConcurrentFibonacciHeap();
+                for (int key : keys) {
+                    this.concurrentHeap.insert(key);
+                }
+            }
+        }
+
+        public int run(final Recorder recorder) {
+            final int pairs = this.keys.length / this.threads;
+            Thread[] workers = new Thread[this.threads];
+            for (int w = 0; w < this.threads; w++) {
+                final int worker = w;
+                workers[w] = new Thread(new Runnable() {
+                    public void run() {
+                        long checksum = 0;
+                        for (int i = 0; i < pairs; i++) {
+                            int key = keys[(worker * pairs + i) % keys.length];
+                            long t = System.nanoTime();
+                            checksum += ConcurrentScenario.this.insertAndPoll(key);
+                            if (worker == 0) {
+                                recorder.record(System.nanoTime() - t);
+                            }
+                        }
+                        sink = checksum;
+                    }
+                });
+            }
+            for (Thread worker : workers) {
+                worker.start();
+            }
+            for (Thread worker : workers) {
+                try {
+                    worker.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+            }
+            return 2 * pairs * this.threads;
+        }
+
+        private long insertAndPoll(int key) {
+            if (this.mode == LOCKED) {
+                synchronized (this.lockedHeap) {
+                    this.lockedHeap.insert(key);
+                    int min = this.lockedHeap.findMin().getKey();
+                    this.lockedHeap.deleteMin();
+                    return min;
+                }
+            }
+            this.concurrentHeap.insert(key);
+            return this.mode == STRICT ? this.concurrentHeap.deleteMin() : this.concurrentHeap.pollApproxMin();
+        }
+    }
+
+    /**
+     * decreaseKey at the bottom of long paths of marked nodes, so every measured cascade cuts the
+     * whole path. n / depth heaps are built, each holding one path of depth + 1 marked nodes (depth 0
+     * means a single path of n). one operation per heap, which cuts depth + 1 nodes.
+     */
+    static class DeepChainScenario implements Scenario {
+        private final int depth;
+        private FibonacciHeap[] heaps;
+        private FibonacciHeap.HeapNode[] bottoms;
+
+        DeepChainScenario(int depth) {
+            this.depth = depth;
+        }
+
+        public void setup(int n, String shape, int[] keys) {
+            int depth = this.depth == 0 ? n : Math.min(this.depth, n);
+            int count = Math.max(1, n / depth);
+            this.heaps = new FibonacciHeap[count];
+            this.bottoms = new FibonacciHeap.HeapNode[count];
+            for (int i = 0; i < count; i++) {
+                this.heaps[i] = new FibonacciHeap();
+                FibonacciHeap.HeapNode[] bottom = MarkedChain.build(this.heaps[i], depth);
+                this.heaps[i].decreaseKey(bottom[0], bottom[0].getKey() + 100);  //marks bottom[1]
+                this.bottoms[i] = bottom[1];
+            }
+        }
+
+        public int run(Recorder recorder) {
+            int ops = 0;
+            for (int i = 0; i < this.heaps.length; i++) {
+                FibonacciHeap.HeapNode node = this.bottoms[i];
+                long t = System.nanoTime();
+                this.heaps[i].decreaseKey(node, node.getKey() + 100);
+                recorder.record(System.nanoTime() - t);
+                ops++;
+            }
+            sink = this.heaps[this.heaps.length - 1].getCutsCount();
+            return ops;
+        }
+    }
+
+    /**
+     * a timer queue where most timers are cancelled before they fire : walking a random order of the
+     * timers, four of every five steps cancel (delete) the timer, if it did not fire yet, and the
+     * fifth fires the earliest timer (deleteMin). keys are made unique by ranking them, keeping the
+     * shape, so a fired timer is found by its key. lazy cancels with cancel instead of delete.
+     */
+    static class CancelHeavyScenario implements Scenario {
+        private final boolean lazy;
+        private FibonacciHeap heap;
+        private FibonacciHeap.HeapNode[] nodes;
+        private int[] indexOfKey;
+        private boolean[] gone;
+        private int[] order;
+
+        CancelHeavyScenario(boolean lazy) {
+            this.lazy = lazy;
+        }
+
+        public void setup(int n, String shape, int[] keys) {
+            long[] ranked = new long[n];
+            for (int i = 0; i < n; i++) {
+                ranked[i] = ((long) keys[i] << 32) | i;
+            }
+            Arrays.sort(ranked);
+            int[] rank = new int[n];
+            this.indexOfKey = new int[n];
+            for (int r = 0; r < n; r++) {
+                int index = (int) ranked[r];
+                rank[index] = r;
+                this.indexOfKey[r] = index;
+            }
+
+            this.heap = new FibonacciHeap();
+            this.nodes = new FibonacciHeap.HeapNode[n];
+            for (int i = 0; i < n; i++) {
+                this.nodes[i] = this.heap.insert(rank[i]);
+            }
+            this.gone = new boolean[n];
+            this.order = permutation(n, new Random(SEED));
+        }
+
+        public int run(Recorder recorder) {
+            int ops = 0;
+            for (int i = 0; i < this.order.length && !this.heap.isEmpty(); i++) {
+                if (i % 5 == 4) {
+                    long t = System.nanoTime();
+                    int fired = this.indexOfKey[this.heap.findMin().getKey()];
+                    this.heap.deleteMin();
+                    recorder.record(System.nanoTime() - t);
+                    this.gone[fired] = true;
+                    ops++;
+                } else if (!this.gone[this.order[i]]) {
+                    long t = System.nanoTime();
+                    if (this.lazy) {
+                        this.heap.cancel(this.nodes[this.order[i]]);
+                    } else {
+                        this.heap.delete(this.nodes[this.order[i]]);
+                    }
+                    recorder.record(System.nanoTime() - t);
+                    this.gone[this.order[i]] = true;
+                    ops++;
+                }
+            }
+            return ops;
+        }
+    }
+
+    /**
+     * a rate limiter which keeps one deadline per client and keeps moving deadlines both ways :
+     * every operation moves the deadline of a random client by a random amount in [-n, n), with
+     * updateKey, or by delete and insert (reinsert), which replaces the client's node.
+     * every 16th operation the earliest deadline is checked (findMin).
+     */
+    static class RateLimiterScenario implements Scenario {
+        private final boolean reinsert;
+        private FibonacciHeap heap;
+        private FibonacciHeap.HeapNode[] nodes;
+        private int[] clients;
+        private int[] moves;
+
+        RateLimiterScenario(boolean reinsert) {
+            this.reinsert = reinsert;
+        }
+
+        public void setup(int n, String shape, int[] keys) {
+            this.heap = new FibonacciHeap();
+            this.nodes = new FibonacciHeap.HeapNode[n];
+            for (int i = 0; i < n; i++) {
+                this.nodes[i] = this.heap.insert(keys[i]);
+            }
+            this.heap.insert(Integer.MIN_VALUE);  //deleted at once, only to consolidate the heap
+            this.heap.deleteMin();
+            Random random = new Random(SEED);
+            this.clients = new int[n];
+            this.moves = new int[n];
+            for (int i = 0; i < n; i++) {
+                this.clients[i] = random.nextInt(n);
+                this.moves[i] = random.nextInt(2 * n) - n;
+            }
+        }
+
+        public int run(Recorder recorder) {
+            long checked = 0;
+            for (int i = 0; i < this.clients.length; i++) {
+                int client = this.clients[i];
+                FibonacciHeap.HeapNode node = this.nodes[client];
+                int deadline = node.getKey() + this.moves[i];
+                long t = System.nanoTime();
+                if (this.reinsert) {
+                    this.heap.delete(node);
+                    this.nodes[client] = this.heap.insert(deadline);
+                } else {
+                    this.heap.updateKey(node, deadline);
+                }
+                if ((i & 15) == 15) {
+                    checked += this.heap.findMin().getKey();
+                }
+                recorder.record(System.nanoTime() - t);
+            }
+            sink = checked;
+            return this.clients.length;
+        }
+    }
+
+    /**
+     * a queue of n keys in steady state : every operation deletes the min and inserts a key a random
+     * distance after it, and every 4th operation also deletes and re-inserts a random key.
+     * with a pool, the deleted nodes are reused, so the alloc column shows what pooling saves.
+     */
+    static class ChurnScenario implements Scenario {
+        private final int poolCapacity;
+        private FibonacciHeap heap;
+        private FibonacciHeap.HeapNode[] nodes;
+        private int[] generations;
+        private int[] offsets;
+        private int[] victims;
+
+        ChurnScenario(int poolCapacity) {
+            this.poolCapacity = poolCapacity;
+        }
+
+        public void setup(int n, String shape, int[] keys) {
+            this.heap = new FibonacciHeap();
+            this.heap.setNodePool(this.poolCapacity);
+            this.nodes = new FibonacciHeap.HeapNode[n];
+            this.generations = new int[n];
+            for (int i = 0; i < n; i++) {
+                this.nodes[i] = this.heap.insert(keys[i]);
+                this.generations[i] = this.nodes[i].getGeneration();
+            }
+            Random random = new Random(SEED);
+            this.offsets = new int[n];
+            this.victims = new int[n];
+            for (int i = 0; i < n; i++) {
+                this.offsets[i] = 1 + random.nextInt(n);
+                this.victims[i] = random.nextInt(n);
+            }
+        }
+
+        public int run(Recorder recorder) {
+            int ops = 0;
+            for (int i = 0; i < this.offsets.length; i++) {
+                long t = System.nanoTime();
+                int key = this.heap.findMin().getKey();
+                this.heap.deleteMin();
+                this.heap.insert(key + this.offsets[i]);
+                if ((i & 3) == 3) {
+                    //a random key still known by its handle is moved to the back
+                    int victim = this.victims[i];
+                    FibonacciHeap.HeapNode node = this.nodes[victim];
+                    if (this.heap.isLive(node, this.generations[victim])) {
+                        int moved = node.getKey() + this.offsets[victim];
+                        this.heap.delete(node);
+                        node = this.heap.insert(moved);
+                        this.nodes[victim] = node;
+                        this.generations[victim] = node.getGeneration();
+                    }
+                }
+                recorder.record(System.nanoTime() - t);
+                ops++;
+            }
+            return ops;
+        }
+    }
+
+    /**
+     * the same workloads over every PriorityHeap implementation :
+     * sort inserts the n keys and drains the heap (an operation is an insert or a deleteMin).
+     * dijkstra inserts the n keys, and then decreases random keys half way to the min, with a deleteMin
+     * every 5th operation, as in DecreaseKeyScenario (an operation is a decreaseKey or a deleteMin).
+     */
+    static class HeapSuiteScenario<N extends PriorityHeap.Node> implements Scenario {
+        private final Supplier<PriorityHeap<N>> factory;
+        private final boolean dijkstra;
+        private PriorityHeap<N> heap;
+        private PriorityHeap.Node[] nodes;
+        private int[] keys;
+        private int[] targets;
+
+        HeapSuiteScenario(Supplier<PriorityHeap<N>> factory, boolean dijkstra) {
+            this.factory = factory;
+            this.dijkstra = dijkstra;
+        }
+
+        public void setup(int n, String shape, int[] keys) {
+            this.heap = this.factory.get();
+            this.keys = keys;
+            if (this.dijkstra) {
+                this.nodes = new PriorityHeap.Node[n];
+                for (int i = 0; i < n; i++) {
+                    this.nodes[i] = this.heap.insert(keys[i] + n);
+                }
+                this.targets = permutation(n, new Random(SEED));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        public int run(Recorder recorder) {
+            int ops = 0;
+            if (!this.dijkstra) {
+                for (int key : this.keys) {
+                    long t = System.nanoTime();
+                    this.heap.insert(key);
+                    recorder.record(System.nanoTime() - t);
+                    ops++;
+                }
+                long checksum = 0;
+                while (!this.heap.isEmpty()) {
+                    long t = System.nanoTime();
+                    checksum += this.heap.findMin().getKey();
+                    this.heap.deleteMin();
+                    recorder.record(System.nanoTime() - t);
+                    ops++;
+                }
+                sink = checksum;
+                return ops;
+            }
+
+            for (int i = 0; i < this.targets.length && !this.heap.isEmpty(); i++) {
+                if (i % 5 == 4) {
+                    long t = System.nanoTime();
+                    this.heap.deleteMin();
+                    recorder.record(System.nanoTime() - t);
+                    ops++;
+                    continue;
+                }
+                N node = (N) this.nodes[this.targets[i]];
+                int gap = node.getKey() - this.heap.findMin().getKey();
+                if (gap > 0) {
+                    long t = System.nanoTime();
+                    this.heap.decreaseKey(node, 1 + (gap - 1) / 2);
+                    recorder.record(System.nanoTime() - t);
+                    ops++;
+                }
+            }
+            return ops;
+        }
+    }
+
+    /**
+     * HeapSuiteScenario over java.util.PriorityQueue, which has no decreaseKey : a decrease inserts the
+     * key again, and deleteMin skips the entries which are no longer current (lazy deletion).
+     * an entry is a Long of (key << 32 | index), so the queue also pays for boxing.
+     */
+    static class PriorityQueueSuiteScenario implements Scenario {
+        private final boolean dijkstra;
+        private PriorityQueue<Long> queue;
+        private int[] keys;
+        private int[] current;
+        private boolean[] done;
+        private int[] targets;
+
+        PriorityQueueSuiteScenario(boolean dijkstra) {
+            this.dijkstra = dijkstra;
+        }
+
+        public void setup(int n, String shape, int[] keys) {
+            this.queue = new PriorityQueue<>();
+            this.keys = keys;
+            if (this.dijkstra) {
+                this.current = new int[n];
+                this.done = new boolean[n];
+                for (int i = 0; i < n; i++) {
+                    this.current[i] = keys[i] + n;
+                    this.queue.add(((long) this.current[i] << 32) | i);
+                }
+                this.targets = permutation(n, new Random(SEED));
+            }
+        }
+
+        public int run(Recorder recorder) {
+            int ops = 0;
+            if (!this.dijkstra) {
+                for (int key : this.keys) {
+                    long t = System.nanoTime();
+                    this.queue.add((long) key);
+                    recorder.record(System.nanoTime() - t);
+                    ops++;
+                }
+                long checksum = 0;
+                while (!this.queue.isEmpty()) {
+                    long t = System.nanoTime();
+                    checksum += this.queue.poll();
+                    recorder.record(System.nanoTime() - t);
+                    ops++;
+                }
+                sink = checksum;
+                return ops;
+            }
+
+            for (int i = 0; i < this.targets.length && this.peekMin() != Long.MAX_VALUE; i++) {
+                if (i % 5 == 4) {
+                    long t = System.nanoTime();
+                    long entry = this.queue.poll();
+                    this.done[(int) entry] = true;
+                    this.peekMin();  //drop stale entries, as a deleteMin of a real heap finds the new min
+                    recorder.record(System.nanoTime() - t);
+                    ops++;
+                    continue;
+                }
+                int index = this.targets[i];
+                int gap = this.current[index] - (int) (this.queue.peek() >> 32);
+                if (!this.done[index] && gap > 0) {
+                    long t = System.nanoTime();
+                    this.current[index] -= 1 + (gap - 1) / 2;
+                    this.queue.add(((long) this.current[index] << 32) | index);
+                    recorder.record(System.nanoTime() - t);
+                    ops++;
+                }
+            }
+            return ops;
+        }
+
+        /**
+         * removes the stale entries from the head of the queue, and returns the head (MAX_VALUE if empty).
+         */
+        private long peekMin() {
+            while (!this.queue.isEmpty()) {
+                long entry = this.queue.peek();
+                int index = (int) entry;
+                if (!this.done[index] && (int) (entry >> 32) == this.current[index]) {
+                    return entry;
+                }
+                this.queue.poll();
+            }
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * DecreaseKeyScenario over IndexedFibonacciHeap, by ids instead of nodes.
+     */
+    static class IndexedDecreaseKeyScenario implements Scenario {
+        private IndexedFibonacciHeap heap;
+        private int[] targets;
+        private boolean extract;
+
+        public void setup(int n, String shape, int[] keys) {
+            this.heap = new IndexedFibonacciHeap(n);
+            for (int i = 0; i < n; i++) {
+                this.heap.insert(i, keys[i] + n);
+            }
+            this.heap.deleteMin();
+            this.targets = permutation(n, new Random(SEED));
+            this.extract = shape.equals("dijkstra");
+        }
+
+        public int run(Recorder recorder) {
+            int ops = 0;
+            for (int i = 0; i < this.targets.length && !this.heap.isEmpty(); i++) {
+                if (this.extract && i % 5 == 4) {
+                    long t = System.nanoTime();
+                    this.heap.deleteMin();
+                    recorder.record(System.nanoTime() - t);
+                    ops++;
+                    continue;
+                }
+                int id = this.targets[i];
+                if (!this.heap.contains(id)) {
+                    continue;
+                }
+                int key = this.heap.keyOf(id);
+                int gap = key - this.heap.minKey();
+                if (gap > 0) {
+                    long t = System.nanoTime();
+                    this.heap.decreaseKeyTo(id, key - 1 - (gap - 1) / 2);
+                    recorder.record(System.nanoTime() - t);
+                    ops++;
+                }
+            }
+            return ops;
+        }
+    }
+
+    /**
+     * whole Dijkstra (or Prim) runs from 4 sources over a synthetic graph of n vertices, one sample
+     * per run; ops are settled vertices. The shape is not used.
+     * Road graphs are sqrt(n) x sqrt(n) grids with 4 neighbours and weights in [1, 100] - few
+     * decreaseKeys per vertex. Power-law graphs attach every vertex to 4 earlier ones picked by degree,
+     * with weights in [1, 1000] - hubs of high degree, and many decreaseKeys.
+     * LAZY_BINARY is the usual alternative to decreaseKey : every improvement is pushed to a binary heap
+     * of (distance, vertex) pairs, and stale pairs are skipped when they come out.
+     */
+    static class ShortestPathScenario implements Scenario {
+        static final int FIBONACCI = 0;
+        static final int LAZY_BINARY = 1;
+        static final int PRIM = 2;
+        private static final int SOURCES = 4;
+        private final boolean powerLaw;
+        private final int algorithm;
+        private Graph graph;
+
+        ShortestPathScenario(boolean powerLaw, int algorithm) {
+            this.powerLaw = powerLaw;
+            this.algorithm = algorithm;
+        }
+
+        public void setup(int n, String shape, int[] keys) {
+            if (this.graph == null || this.graph.vertexCount() != n) {
+                this.graph = this.powerLaw ? powerLawGraph(n) : roadGraph(n);
+            }
+        }
+
+        public int run(Recorder recorder) {
+            int n = this.graph.vertexCount();
+            long checksum = 0;
+            for (int i = 0; i < SOURCES; i++) {
+                int source = (int) ((long) i * n / SOURCES);
+                long t = System.nanoTime();
+                if (this.algorithm == FIBONACCI) {
+                    checksum += this.graph.dijkstra(source).getDist()[n - 1 - source];
+                } else if (this.algorithm == LAZY_BINARY) {
+                    checksum += lazyDijkstra(this.graph, source)[n - 1 - source];
+                } else {
+                    checksum += this.graph.prim(source).totalWeight();
+                }
+                recorder.record(System.nanoTime() - t);
+            }
+            sink = checksum;
+            return SOURCES * n;
+        }
+
+        static Graph roadGraph(int n) {
+            int side = Math.max(1, (int) Math.sqrt(n));
+            Random random = new Random(SEED);
+            int[] from = new int[4 * n];
+            int[] to = new int[4 * n];
+            int[] weight = new int[4 * n];
+            int m = 0;
+            for (int v = 0; v < n; v++) {
+                //the edges to the right and down neighbours, in both directions
+                int[] neighbours = {v % side + 1 < side ? v + 1 : n, v + side};
+                for (int u : neighbours) {
+                    if (u < n) {
+                        int w = 1 + random.nextInt(100);
+                        from[m] = v;
+                        to[m] = u;
+                        weight[m++] = w;
+                        from[m] = u;
+                        to[m] = v;
+                        weight[m++] = w;
+                    }
+                }
+            }
+            return Graph.fromEdges(n, Arrays.copyOf(from, m), Arrays.copyOf(to, m), Arrays.copyOf(weight, m));
+        }
+
+        static Graph powerLawGraph(int n) {
+            final int degree = 4;
+            Random random = new Random(SEED);
+            int[] from = new int[2 * degree * n];
+            int[] to = new int[2 * degree * n];
+            int[] weight = new int[2 * degree * n];
+            //every edge end is listed once, so a uniform pick from it is a pick by degree
+            int[] ends = new int[2 * degree * n];
+            int m = 0;
+            for (int v = 1; v < n; v++) {
+                for (int j = 0; j < degree; j++) {
+                    int u = m == 0 ? 0 : ends[random.nextInt(m)];
+                    int w = 1 + random.nextInt(1000);
+                    ends[m] = v;
+                    from[m] = v;
+                    to[m] = u;
+                    weight[m++] = w;
+                    ends[m] = u;
+                    from[m] = u;
+                    to[m] = v;
+                    weight[m++] = w;
+                }
+            }
+            return Graph.fromEdges(n, Arrays.copyOf(from, m), Arrays.copyOf(to, m), Arrays.copyOf(weight, m));
+        }
+
+        /**
+         * Dijkstra with lazy insertion into a binary heap of longs, (distance << 32 | vertex).
+         */
+        static int[] lazyDijkstra(Graph graph, int source) {
+            int[] offsets = graph.getOffsets();
+            int[] targets = graph.getTargets();
+            int[] weights = graph.getWeights();
+            int[] dist = new int[graph.vertexCount()];
+            Arrays.fill(dist, Graph.UNREACHED);
+            long[] heap = new long[16];
+            int size = 0;
+            dist[source] = 0;
+            heap[size++] = source;
+            while (size > 0) {
+                long top = heap[0];
+                //sift the last pair down from the root
+                long last = heap[--size];
+                int i = 0;
+                while (2 * i + 1 < size) {
+                    int c = 2 * i + 1;
+                    if (c + 1 < size && heap[c + 1] < heap[c]) {
+                        c++;
+                    }
+                    if (heap[c] >= last) {
+                        break;
+                    }
+                    heap[i] = heap[c];
+                    i = c;
+                }
+                heap[i] = last;
+
+                int d = (int) (top >>> 32);
+                int u = (int) top;
+                if (d > dist[u]) {
+                    continue;  //stale
+                }
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int v = targets[e];
+                    int candidate = d + weights[e];
+                    if (candidate < dist[v]) {
+                        dist[v] = candidate;
+                        if (size == heap.length) {
+                            heap = Arrays.copyOf(heap, 2 * size);
+                        }
+                        //sift the new pair up
+                        long pair = (long) candidate << 32 | v;
+                        int j = size++;
+                        while (j > 0 && heap[(j - 1) / 2] > pair) {
+                            heap[j] = heap[(j - 1) / 2];
+                            j = (j - 1) / 2;
+                        }
+                        heap[j] = pair;
+                    }
+                }
+            }
+            return dist;
+        }
+    }
+
+    /**
+     * 64 Dijkstra queries per run over the road graph of n vertices, fanned out by
+     * Graph.dijkstraBatch on a pool of the given parallelism; one sample per batch, ops are settled
+     * vertices. The shape is not used.
+     */
+    static class DijkstraBatchScenario implements Scenario {
+        private static final int QUERIES = 64;
+        private final int threads;
+        private ForkJoinPool pool;
+        private Graph graph;
+        private int[] sources;
+
+        DijkstraBatchScenario(int threads) {
+            this.threads = threads;
+        }
+
+        public void setup(int n, String shape, int[] keys) {
+            if (this.pool == null) {
+                this.pool = new ForkJoinPool(this.threads);
+            }
+            if (this.graph == null || this.graph.vertexCount() != n) {
+                this.graph = ShortestPathScenario.roadGraph(n);
+                this.sources = new int[QUERIES];
+                Random random = new Random(SEED);
+                for (int i = 0; i < QUERIES; i++) {
+                    this.sources[i] = random.nextInt(n);
+                }
+            }
+        }
+
+        public int run(Recorder recorder) {
+            long t = System.nanoTime();
+            Graph.Tree[] trees = this.graph.dijkstraBatch(this.sources, this.pool);
+            recorder.record(System.nanoTime() - t);
+            sink = trees[QUERIES - 1].getDist()[0];
+            return QUERIES * this.graph.vertexCount();
+        }
+    }
+
+    /**
+     * per-request scratch heaps : n/32 heaps of 32 keys, each asked for its 4 smallest keys and then
+     * dropped - either a new FibonacciHeap per request, one heap emptied by clear() (with or without
+     * a node pool), or one ArrayFibonacciHeap emptied by clear(). One sample per request.
+     */
+    static class SmallHeapsScenario implements Scenario {
+        static final int NEW = 0;
+        static final int CLEAR = 1;
+        static final int CLEAR_POOLED = 2;
+        static final int ARRAY_CLEAR = 3;
+        private static final int KEYS = 32;
+        private static final int QUERIED = 4;
+        private final int mode;
+        private FibonacciHeap heap;
+        private ArrayFibonacciHeap arrayHeap;
+        private int[] keys;
+
+        SmallHeapsScenario(int mode) {
+            this.mode = mode;
+        }
+
+        public void setup(int n, String shape, int[] keys) {
+            this.keys = keys;
+            this.heap = new FibonacciHeap();
+            if (this.mode == CLEAR_POOLED) {
+                this.heap.setNodePool(KEYS);
+            }
+            this.arrayHeap = new ArrayFibonacciHeap(KEYS);
+        }
+
+        public int run(Recorder recorder) {
+            long checksum = 0;
+            int requests = Math.max(1, this.keys.length / KEYS);
+            for (int r = 0; r < requests; r++) {
+                int from = (r * KEYS) % this.keys.length;
+                int to = Math.min(from + KEYS, this.keys.length);
+                long t = System.nanoTime();
+                if (this.mode == ARRAY_CLEAR) {
+                    ArrayFibonacciHeap scratch = this.arrayHeap;
+                    scratch.clear();
+                    for (int i = from; i < to; i++) {
+                        scratch.insert(this.keys[i]);
+                    }
+                    for (int i = 0; i < QUERIED && !scratch.isEmpty(); i++) {
+                        checksum += scratch.findMin();
+                        scratch.deleteMin();
+                    }
+                } else {
+                    FibonacciHeap scratch = this.heap;
+                    if (this.mode == NEW) {
+                        scratch = new FibonacciHeap();
+                    } else {
+                        scratch.clear();
+                    }
+                    for (int i = from; i < to; i++) {
+                        scratch.insert(this.keys[i]);
+                    }
+                    for (int i = 0; i < QUERIED && !scratch.isEmpty(); i++) {
+                        checksum += scratch.findMin().getKey();
+                        scratch.deleteMin();
+                    }
+                }
+                recorder.record(System.nanoTime() - t);
+            }
+            sink = checksum;
+            return requests;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ConcurrentFibonacciHeap
+ *
+ * A thread safe priority queue over integers, made of several FibonacciHeap stripes, each guarded
+ * by its own lock, so threads working on different stripes do not contend.
+ *
+ * insert puts the key in the smaller of two random stripes (two choices keep the stripes balanced).
+ * meld adds a whole, thread confined heap to a stripe in O(1), which is the cheap way to load many keys.
+ * deleteMin is strict: it locks all the stripes and removes the global minimum.
+ * pollApproxMin is relaxed (MultiQueue): it samples two random stripes and removes the minimum of the
+ * one with the smaller minimum, so it returns one of the smallest keys, not always the smallest.
+ *
+ * The keys are returned as long, with EMPTY returned when there is nothing to remove.
+ */
+public class ConcurrentFibonacciHeap {
+    public static final long EMPTY = Long.MIN_VALUE;
+
+    private final Stripe[] stripes;
+
+    public ConcurrentFibonacciHeap() {
+        this(2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    public ConcurrentFibonacciHeap(int stripeCount) {
+        this.stripes = new Stripe[Math.max(1, stripeCount)];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+   /**
+    * public void insert(int key)
+    *
+    * Inserts the key into the smaller of two random stripes.
+    *
+    * complexity : O(1)
+    */
+    public void insert(int key) {
+        Stripe stripe = this.chooseSmaller();
+        stripe.lock.lock();
+        try {
+            stripe.heap.insert(key);
+            stripe.update();
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+   /**
+    * public void meld(FibonacciHeap heap)
+    *
+    * Melds all the keys of heap into the smaller of two random stripes.
+    * heap is empty afterwards.
+    *
+    * complexity : O(1)
+    */
+    public void meld(FibonacciHeap heap) {
+        if (heap.isEmpty()) {
+            return;
+        }
+        Stripe stripe = this.chooseSmaller();
+        stripe.lock.lock();
+        try {
+            stripe.heap.meld(heap);
+            stripe.update();
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+   /**
+    * public long deleteMin()
+    *
+    * Deletes the minimum key of the whole heap and returns it, or returns EMPTY if the heap is empty.
+    * All the stripes are locked (in a fixed order) while the minimum is looked up and removed.
+    *
+    * complexity : O(#stripes + n)
+    */
+    public long deleteMin() {
+        for (Stripe stripe : this.stripes) {
+            stripe.lock.lock();
+        }
+        try {
+            Stripe best = null;
+            for (Stripe stripe : this.stripes) {
+                if (!stripe.heap.isEmpty()
+                        && (best == null || stripe.heap.findMin().getKey() < best.heap.findMin().getKey())) {
+                    best = stripe;
+                }
+            }
+            return best == null ? EMPTY : best.deleteMin();
+        } finally {
+            for (int i = this.stripes.length - 1; i >= 0; i--) {
+                this.stripes[i].lock.unlock();
+            }
+        }
+    }
+
+   /**
+    * public long pollApproxMin()
+    *
+    * Deletes and returns the minimum of one of two random stripes - the one whose minimum is smaller.
+    * If both are empty, the other stripes are tried in turn. Returns EMPTY if all the stripes are empty.
+    *
+    * complexity : O(n) as deleteMin of a single stripe
+    */
+    public long pollApproxMin() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int count = this.stripes.length;
+        Stripe first = this.stripes[random.nextInt(count)];
+        Stripe second = this.stripes[random.nextInt(count)];
+        Stripe chosen = first.min <= second.min ? first : second;
+
+        //the snapshot of the min may be stale, so the stripe is checked again under its lock
+        if (chosen.min != Stripe.NONE) {
+            chosen.lock.lock();
+            try {
+                if (!chosen.heap.isEmpty()) {
+                    return chosen.deleteMin();
+                }
+            } finally {
+                chosen.lock.unlock();
+            }
+        }
+
+        //fall back to the other stripes
+        int start = random.nextInt(count);
+        for (int i = 0; i < count; i++) {
+            Stripe stripe = this.stripes[(start + i) % count];
+            if (stripe.min == Stripe.NONE) {
+                continue;
+            }
+            stripe.lock.lock();
+            try {
+                if (!stripe.heap.isEmpty()) {
+                    return stripe.deleteMin();
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return EMPTY;
+    }
+
+   /**
+    * public int size()
+    *
+    * Returns the number of keys in the heap. Not atomic with respect to concurrent updates.
+    *
+    * complexity : O(#stripes)
+    */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : this.stripes) {
+            size += stripe.size;
+        }
+        return size;
+    }
+
+   /**
+    * public boolean isEmpty()
+    *
+    * Returns true if all the stripes are empty. Not atomic with respect to concurrent updates.
+    *
+    * complexity : O(#stripes)
+    */
+    public boolean isEmpty() {
+        for (Stripe stripe : this.stripes) {
+            if (stripe.size != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Stripe chooseSmaller() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Stripe first = this.stripes[random.nextInt(this.stripes.length)];
+        Stripe second = this.stripes[random.nextInt(this.stripes.length)];
+        return first.size <= second.size ? first : second;
+    }
+
+   /**
+    * private static class Stripe
+    *
+    * A FibonacciHeap with its lock, and volatile snapshots of its size and min which are read
+    * without the lock to choose stripes. The snapshots are updated under the lock after every change.
+    */
+    private static class Stripe {
+        static final long NONE = Long.MAX_VALUE;  //min snapshot of an empty stripe
+
+        final FibonacciHeap heap = new FibonacciHeap();
+        final ReentrantLock lock = new ReentrantLock();
+        volatile int size = 0;
+        volatile long min = NONE;
+
+        /**
+         * pre : the lock is held and the heap is not empty
+         */
+        long deleteMin() {
+            int key = this.heap.findMin().getKey();
+            this.heap.deleteMin();
+            this.update();
+            return key;
+        }
+
+        /**
+         * pre : the lock is held
+         */
+        void update() {
+            this.size = this.heap.size();
+            this.min = this.heap.isEmpty() ? NONE : this.heap.findMin().getKey();
+        }
+    }
+}
@@ -1,3 +1,6 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * Submiters Info:
  *
@@ -13,28 +16,52 @@
  *
  * An implementation of a Fibonacci Heap over integers.
  */
-public class FibonacciHeap {
+public class FibonacciHeap implements PriorityHeap<FibonacciHeap.HeapNode> {
     private HeapNode head = null;
     private HeapNode tail = null;
     private HeapNode min = null;
     private int size = 0;
     private int treeCount = 0;
     private int markedCount = 0;
-    private static int linkedCount = 0;
-    private static int cutsCount = 0;
+    private HeapNode[] buckets = new HeapNode[rankBound(1)];  //reusable consolidate buckets
+    private NodeQueue candidates = null;  //reusable deleteMinBatch queue, created on first use
+    private static final int HISTOGRAM_SIZE = 32;
+
+    //listener calls are compiled in only when the JVM runs with -Dfibheap.metrics=true
+    static final boolean METRICS_ENABLED = Boolean.getBoolean("fibheap.metrics");
+    private HeapListener listener = null;
+    private long consolidateNanos = 0;  //duration of the last consolidate, measured for the listener
+
+    //lazy cancellation - cancelled nodes stay in the heap until they surface as the min or are purged
+    private int tombstones = 0;
+    private double purgeRatio = 0.5;
+
+    //opt-in pool of deleted nodes, kept as a list over the next pointers and reused by insert
+    private HeapNode freeList = null;
+    private int freeCount = 0;
+    private int poolCapacity = 0;
+    private Epoch epoch = new Epoch();  //the nodes inserted since the last clear
+
+    //statistics of this heap - a heap is used by one thread at a time, so these are plain fields
+    private long linksCount = 0;
+    private long cutsCount = 0;
+    private long consolidationsCount = 0;
+    private long rootsScannedCount = 0;
+    private long[] cascadingCutsHistogram = null;  //created on the first cut
+
+    //statistics of all the heaps in the JVM, updated once per consolidate / decreaseKey
+    private static final LongAdder totalLinksAdder = new LongAdder();
+    private static final LongAdder totalCutsAdder = new LongAdder();
 
    /**
     * public boolean isEmpty()
     *
-    * Returns true if and only if the heap is empty.
+    * Returns true if and only if the heap is empty (cancelled nodes are not counted).
     *
     * complexity : O(1)
     */
     public boolean isEmpty() {
-    	if (this.head == null) {
-    	    return true;
-        }
-    	return false;
+    	return this.size == this.tombstones;
     }
 		
    /**
@@ -48,10 +75,209 @@ public class FibonacciHeap {
     * complexity : O(1)
     */
     public HeapNode insert(int key) {
-    	HeapNode newHeapNode = new HeapNode(key);
+    	return this.insertNode(this.createNode(key));
+    }
+
+   /**
+    * public HeapNode[] insertAll(int[] keys)
+    *
+    * Inserts all the given keys into the heap, building their roots list in one pass and
+    * splicing it in front of the current roots list.
+    *
+    * Returns the new nodes, where the i-th node contains keys[i].
+    *
+    * complexity : O(k), k = keys.length
+    */
+    public HeapNode[] insertAll(int[] keys) {
+        HeapNode[] nodes = new HeapNode[keys.length];
+        if (keys.length == 0) {
+            return nodes;
+        }
+
+        //build the linked list of the new roots, and find their min
+        HeapNode prev = null;
+        HeapNode batchMin = null;
+        for (int i = 0; i < keys.length; i++) {
+            HeapNode newHeapNode = this.createNode(keys[i]);
+            newHeapNode.epoch = this.epoch;
+            newHeapNode.setPrev(prev);
+            if (prev != null) {
+                prev.setNext(newHeapNode);
+            }
+            if (batchMin == null || keys[i] < batchMin.getKey()) {
+                batchMin = newHeapNode;
+            }
+            nodes[i] = newHeapNode;
+            prev = newHeapNode;
+        }
 
+        //connect the last new root to the current head
+        prev.setNext(this.head);
+        if (this.head != null) {
+            this.head.setPrev(prev);
+        } else {
+            this.tail = prev;
+        }
+        this.head = nodes[0];
+
+        this.size += keys.length;
+        this.treeCount += keys.length;
+        if (this.min == null || batchMin.getKey() < this.min.getKey()) {
+            this.min = batchMin;
+        }
+        return nodes;
+    }
+
+   /**
+    * public static FibonacciHeap fromArray(int[] keys)
+    *
+    * Returns a new heap containing the given keys (see insertAll).
+    *
+    * complexity : O(k), k = keys.length
+    */
+    public static FibonacciHeap fromArray(int[] keys) {
+        FibonacciHeap heap = new FibonacciHeap();
+        heap.insertAll(keys);
+        return heap;
+    }
+
+   /**
+    * HeapNode createNode(int key)
+    *
+    * Creates a new node for the given key, or reuses a deleted node from the pool (see setNodePool).
+    * Subclasses with their own kind of nodes override it.
+    *
+    * complexity : O(1)
+    */
+    HeapNode createNode(int key) {
+        HeapNode node = this.reuseNode(key);
+        return node != null ? node : new HeapNode(key);
+    }
+
+   /**
+    * HeapNode reuseNode(int key)
+    *
+    * Takes a node from the pool and gives it the given key, or returns null if the pool is empty.
+    *
+    * complexity : O(1)
+    */
+    HeapNode reuseNode(int key) {
+        HeapNode node = this.freeList;
+        if (node == null) {
+            return null;
+        }
+        this.freeList = node.getNext();
+        this.freeCount--;
+        node.setNext(null);
+        node.setKey(key);
+        return node;
+    }
+
+   /**
+    * boolean isPoolable(HeapNode x)
+    *
+    * Returns true if the deleted node x may be handed out again by createNode.
+    * Nodes of subclasses carry more than a key, so only plain nodes are pooled - a subclass which
+    * resets its own fields on reuse overrides it.
+    *
+    * complexity : O(1)
+    */
+    boolean isPoolable(HeapNode x) {
+        return x.getClass() == HeapNode.class;
+    }
+
+   /**
+    * private void retire(HeapNode x)
+    *
+    * Called for every node deleted from the heap. Advances the generation of x, so handles of x are
+    * no longer live, and puts x in the pool if there is room. x keeps its key until it is reused.
+    * @pre: x is not in the heap
+    *
+    * complexity : O(1)
+    */
+    private void retire(HeapNode x) {
+        x.nextGeneration();
+        if (this.freeCount < this.poolCapacity && this.isPoolable(x)) {
+            x.setRank(0);
+            x.setMarked(false);
+            x.setChild(null);
+            x.setParent(null);
+            x.setPrev(null);
+            x.setCancelled(false);
+            x.setNext(this.freeList);
+            this.freeList = x;
+            this.freeCount++;
+        }
+    }
+
+   /**
+    * public void setNodePool(int capacity)
+    *
+    * Turns on the reuse of deleted nodes : up to capacity deleted nodes are kept and given to the
+    * next inserts, instead of allocating new nodes. 0 (the default) turns it off and drops the pool.
+    * A node handed out again is the same object, so a caller which keeps nodes after deleting them
+    * should keep the generation as well, and check it with isLive (or use the checked operations).
+    *
+    * complexity : O(1)
+    */
+    public void setNodePool(int capacity) {
+        this.poolCapacity = Math.max(0, capacity);
+        while (this.freeCount > this.poolCapacity) {
+            HeapNode node = this.freeList;
+            this.freeList = node.getNext();
+            node.setNext(null);
+            this.freeCount--;
+        }
+    }
+
+   /**
+    * public int getPooledCount()
+    *
+    * Returns the number of deleted nodes waiting in the pool.
+    *
+    * complexity : O(1)
+    */
+    public int getPooledCount() {
+        return this.freeCount;
+    }
+
+   /**
+    * public boolean isLive(HeapNode x, int generation)
+    *
+    * Returns true if x, which had the given generation when it was inserted (x.getGeneration()),
+    * was not deleted since - even if x was reused for another key by the pool - and was not dropped
+    * by clear.
+    *
+    * complexity : O(1) amortized
+    */
+    public boolean isLive(HeapNode x, int generation) {
+        return x != null && x.getGeneration() == generation && (x.epoch == null || !x.epoch.isCleared());
+    }
+
+   /**
+    * private void checkLive(HeapNode x, int generation)
+    *
+    * Throws IllegalStateException if the handle (x, generation) is stale.
+    *
+    * complexity : O(1)
+    */
+    private void checkLive(HeapNode x, int generation) {
+        if (!this.isLive(x, generation)) {
+            throw new IllegalStateException("stale handle : the node was deleted or cleared");
+        }
+    }
+
+   /**
+    * HeapNode insertNode(HeapNode newHeapNode)
+    *
+    * Inserts the given (new) node into the heap as a root and returns it.
+    *
+    * complexity : O(1)
+    */
+    HeapNode insertNode(HeapNode newHeapNode) {
+        newHeapNode.epoch = this.epoch;
     	//update tail if heap is currently empty
-        if (this.isEmpty()) {
+        if (this.head == null) {
             this.tail = newHeapNode;
         }
 
@@ -62,14 +288,13 @@ public class FibonacciHeap {
         }
         this.head = newHeapNode;
 
-        newHeapNode.setIsRoot(true);  //update node to be a root
         this.size++;  //update heap size + 1
         this.treeCount++;  //update number of trees + 1
 
         //update min if necessary
         if (this.min == null) {
             this.min = newHeapNode;
-        } else if (key < this.min.getKey()) {
+        } else if (newHeapNode.getKey() < this.min.getKey()) {
             this.min = newHeapNode;
         }
     	return newHeapNode;
@@ -78,109 +303,186 @@ public class FibonacciHeap {
    /**
     * public void deleteMin()
     *
-    * Deletes the node containing the minimum key.
+    * Deletes the node containing the minimum key. Cancelled nodes on the way are deleted as well.
     *
     * complexity : O(n)
     */
     public void deleteMin() {
-        if (this.min != null) {
-            HeapNode currChild = this.min.getChild();
-
-            //if min has a child (or children) - connect it (them) to root list
-            if (currChild != null) {
-                //connect left child to left brother of min
-                currChild.setPrev(this.min.getPrev());
-                if (this.min.getPrev() != null) {
-                    this.min.getPrev().setNext(currChild);
-                }
+        this.reclaimCancelledMin();
+        if (this.min == null) {
+            return;
+        }
+        if (METRICS_ENABLED && this.listener != null) {
+            long start = System.nanoTime();
+            long linksBefore = this.linksCount;
+            long rootsBefore = this.rootsScannedCount;
+            this.consolidateNanos = 0;
+            this.removeMin();
+            this.listener.onDeleteMin(System.nanoTime() - start, this.consolidateNanos,
+                    (int) (this.rootsScannedCount - rootsBefore), (int) (this.linksCount - linksBefore));
+        } else {
+            this.removeMin();
+        }
+    }
 
-                //update min children to be independent trees
-                boolean seenHead = true;
-                boolean seenTail = true;
-                if (this.min == this.head) {
-                    seenHead = false;
-                }
-                if (this.min == this.tail) {
-                    seenTail = false;
-                }
-                while (currChild != null) {
-                    if (!seenHead) {
-                        this.head = currChild;
-                        seenHead = true;
-                    }
-                    currChild.setParent(null);
-                    currChild.setIsRoot(true);
-                    if (currChild.getMarked()) {
-                        currChild.setMarked(false);
-                        this.markedCount--;
-                    }
-                    if (!currChild.hasNext()) {
-                        if (!seenTail) {
-                            this.tail = currChild;
-                        }
-                        break;
-                    }
-                    currChild = currChild.getNext();
-                }
+   /**
+    * private void removeMin()
+    *
+    * Removes the min node, puts its children in the roots list and consolidates the heap.
+    * @pre: this.min != null
+    *
+    * complexity : O(n)
+    */
+    private void removeMin() {
+        HeapNode x = this.min;
+        this.removeRoot(x);
 
-                //connect right child of min to min next
-                currChild.setNext(this.min.getNext());
-                if (this.min.getNext() != null) {
-                    this.min.getNext().setPrev(currChild);
-                }
+        //consolidate heap - also updates heap tree count and min
+        if (this.head != null) {
+            this.consolidate();
+        } else {
+            this.min = null;
+            this.treeCount = 0;
+        }
 
+        //update heap size
+        this.size--;
+        this.retire(x);
+    }
+
+   /**
+    * private void reclaimCancelledMin()
+    *
+    * Deletes the min while it is a cancelled node, so the min is a live node (or null).
+    *
+    * complexity : O(n) per reclaimed node
+    */
+    private void reclaimCancelledMin() {
+        while (this.min != null && this.min.isCancelled()) {
+            this.tombstones--;
+            this.removeMin();
+        }
+    }
+
+   /**
+    * public int[] deleteMinBatch(int k)
+    *
+    * Deletes the k nodes with the smallest keys (or all the nodes if the heap has less than k),
+    * and returns their keys in ascending order.
+    *
+    * complexity : O(#trees + k log(#trees + k deg)) + one consolidation
+    */
+    public int[] deleteMinBatch(int k) {
+        int[] keys = new int[Math.max(0, Math.min(k, this.size()))];
+        this.deleteMinBatch(keys);
+        return keys;
+    }
+
+   /**
+    * public int deleteMinBatch(int[] out)
+    *
+    * Deletes the out.length nodes with the smallest keys (or all the nodes if the heap has less),
+    * writes their keys to out in ascending order, and returns the number of deleted nodes.
+    *
+    * Instead of k deleteMin calls (each consolidating the whole roots list), the k smallest nodes
+    * are taken from the forest with a binary heap of candidates: it starts with the roots, and
+    * every deleted node adds its children. The candidates which are left are exactly the roots
+    * of the remaining forest, so they become the new roots list, which is consolidated once.
+    *
+    * complexity : O(#trees + k log(#trees + k deg)) + one consolidation
+    */
+    public int deleteMinBatch(int[] out) {
+        int k = Math.min(out.length, this.size());
+        if (k == 0) {
+            return 0;
+        }
+        if (this.candidates == null) {
+            this.candidates = new NodeQueue();
+        }
+        NodeQueue candidates = this.candidates;
+
+        //start with all the roots
+        for (HeapNode root = this.head; root != null; root = root.getNext()) {
+            candidates.add(root);
+        }
+        candidates.heapify();
+
+        //delete the k smallest nodes - every deleted node exposes its children
+        //cancelled nodes on the way are deleted as well, without being written to out
+        int deleted = 0;
+        for (int i = 0; i < k; deleted++) {
+            HeapNode x = candidates.poll();
+            if (x.isCancelled()) {
+                this.tombstones--;
+            } else {
+                out[i++] = x.getKey();
             }
-            else {  //if min has no children - connect its left and right brothers unless they are the head to tail.
-                if (this.min != this.head) { //min has a left brother
-                    this.min.getPrev().setNext(this.min.getNext());
-                } else {  //update new head
-                    this.head = this.min.getNext();
-                }
-                if (this.min != this.tail) { //min has a right child
-                    this.min.getNext().setPrev(this.min.getPrev());
-                } else { //update new tail
-                    this.tail = this.min.getPrev();
-                }
+            if (x.getMarked()) {
+                x.setMarked(false);
+                this.markedCount--;
             }
+            for (HeapNode child = x.getChild(); child != null; child = child.getNext()) {
+                candidates.push(child);
+            }
+            x.setChild(null);
+            x.setParent(null);
+            this.retire(x);
+        }
 
-            //disconnect all min pointers
-            this.min.setChild(null);
-            this.min.setPrev(null);
-            this.min.setNext(null);
-
-            //consolidate heap
-            if (!(this.isEmpty())) {
-                this.consolidate();
+        //the remaining candidates are the new roots list
+        this.head = null;
+        this.tail = null;
+        for (int i = 0; i < candidates.size(); i++) {
+            HeapNode root = candidates.get(i);
+            root.setParent(null);
+            if (root.getMarked()) {
+                root.setMarked(false);
+                this.markedCount--;
+            }
+            root.setPrev(this.tail);
+            root.setNext(null);
+            if (this.tail == null) {
+                this.head = root;
+            } else {
+                this.tail.setNext(root);
             }
+            this.tail = root;
+        }
+        candidates.clear();
 
-            //update heap size, heap tree count, and min
-            this.size--;
+        //update heap size, and consolidate heap - also updates heap tree count and min
+        this.size -= deleted;
+        if (this.head == null) {
+            this.min = null;
             this.treeCount = 0;
-            HeapNode currMin = this.head;
-            HeapNode curr = this.head;
-            while (curr != null) {
-                if (curr.getKey() < currMin.getKey()) { //update current minimum if key is smaller
-                    currMin = curr;
-                }
-                this.treeCount++;
-                curr = curr.getNext();
-            }
-            this.min = currMin;  //update heap minimum to point currMin
+        } else {
+            this.consolidate();
         }
+        return k;
     }
 
     /**
      * private void consolidate()
      *
      * Successive Linking process on heap after deleteMin
+     * While the new root list is built from the buckets, the new min and tree count are updated,
+     * so deleteMin does not need another pass over the roots.
+     * The buckets array is kept between calls and only grows when the size of the heap crosses
+     * the next rank bound, so consolidation does not allocate.
      * pre : heap is not empty
      *
      * complexity : O(n)
      */
     private void consolidate() {
-        //create node array size log(n+1)
-        int arraySize = (int) Math.ceil(Math.log(this.size+1)/Math.log(2));
-        HeapNode[] buckets = new HeapNode[arraySize];
+        long start = METRICS_ENABLED && this.listener != null ? System.nanoTime() : 0L;
+        //grow buckets if the heap got bigger than the current rank bound
+        if (this.buckets.length < rankBound(this.size)) {
+            this.buckets = new HeapNode[rankBound(this.size)];
+        }
+        HeapNode[] buckets = this.buckets;
+        int maxRank = 0;
+        int links = 0;
+        int roots = 0;
 
         //Successive Linking
         HeapNode curr = this.head;
@@ -188,9 +490,10 @@ public class FibonacciHeap {
             HeapNode nextTree = curr.getNext();
             curr.setPrev(null);
             int currRank = curr.getRank();
+            roots++;
 
             //if the i place in the array is not null - link the trees. smaller key is the root.
-            while (currRank < buckets.length-1 && buckets[currRank] != null) {
+            while (buckets[currRank] != null) {
                 HeapNode parent;
                 HeapNode child;
                 if (buckets[currRank].getKey() < curr.getKey()) {
@@ -200,9 +503,7 @@ public class FibonacciHeap {
                     parent = curr;
                     child = buckets[currRank];
                 }
-                //update nodes fields - parent and child pointers, rank and isRoot flag
-                parent.setIsRoot(true);
-                child.setIsRoot(false);
+                //update nodes fields - parent and child pointers, and rank
                 child.setNext(parent.getChild());
                 if (parent.getChild() != null) {
                     parent.getChild().setPrev(child);
@@ -218,47 +519,83 @@ public class FibonacciHeap {
                 currRank = parent.getRank();
 
                 //update links counter
-                this.linkedCount++;
+                links++;
             }
             buckets[currRank] = curr;
+            if (currRank > maxRank) {
+                maxRank = currRank;
+            }
             curr = nextTree;
 
         }
 
-        //build the new linked list
-        HeapNode currTree = buckets[0];
+        //build the new linked list, find the new min and count the trees, and empty the buckets
+        HeapNode currTree = null;
         HeapNode nextTree;
-        boolean seenHead = false;
+        HeapNode currMin = null;
+        int trees = 0;
 
-        for (int i = 0; i < buckets.length; i++) {
+        for (int i = 0; i <= maxRank; i++) {
             if (buckets[i] != null) {
-                if (!seenHead) {
+                if (currTree == null) {
                     currTree = buckets[i];
                     this.head = currTree;
                     currTree.setPrev(null);
                     currTree.setParent(null);
-                    seenHead = true;
+                    currMin = currTree;
                 } else {
                     nextTree = buckets[i];
                     nextTree.setParent(null);
                     currTree.setNext(nextTree);
                     nextTree.setPrev(currTree);
                     currTree = nextTree;
+                    if (currTree.getKey() < currMin.getKey()) { //update current minimum if key is smaller
+                        currMin = currTree;
+                    }
                 }
+                trees++;
+                buckets[i] = null;
             }
         }
         this.tail = currTree;
         currTree.setNext(null);
+        this.min = currMin;
+        this.treeCount = trees;
+
+        //update statistics
+        this.linksCount += links;
+        this.consolidationsCount++;
+        this.rootsScannedCount += roots;
+        totalLinksAdder.add(links);
+        if (METRICS_ENABLED && this.listener != null) {
+            this.consolidateNanos = System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * private static int rankBound(int n)
+     *
+     * Returns a number of buckets that is larger than the maximal rank of a tree in a heap of n nodes.
+     * A tree of rank r has at least F(r+2) >= phi^r nodes, so the rank is at most log_phi(n) ~ 1.44*log2(n).
+     * The bound is computed with integer operations: 1.5*(floor(log2(n))+1) + 1.
+     *
+     * complexity : O(1)
+     */
+    private static int rankBound(int n) {
+        int bits = 32 - Integer.numberOfLeadingZeros(n);  //floor(log2(n)) + 1
+        return bits + (bits >> 1) + 1;
     }
 
     /**
     * public HeapNode findMin()
     *
     * Returns the node of the heap whose key is minimal, or null if the heap is empty.
+    * A cancelled min is deleted first (see cancel).
     *
-     * complexity : O(1)
+     * complexity : O(1), O(n) amortized over the cancelled nodes
     */
     public HeapNode findMin() {
+        this.reclaimCancelledMin();
     	return this.min;
     }
 
@@ -306,47 +643,145 @@ public class FibonacciHeap {
         return this.markedCount;
     }
 
+   /**
+    * public void clear()
+    *
+    * Empties the heap and keeps its buffers (the consolidate buckets, the batch queue and the pool)
+    * for the next inserts. The statistics are kept as well.
+    * With a node pool, deleted nodes are taken back into it while there is room - they become stale
+    * like deleted nodes. The other nodes are dropped, and their handles are stale as well : the epoch
+    * of the heap is closed, so isLive and the checked operations reject them.
+    *
+    * complexity : O(1), O(pool capacity) with a node pool
+    */
+    public void clear() {
+        //walk the trees, moving the children of a node in front of the nodes after it
+        HeapNode x = this.head;
+        for (int room = this.poolCapacity - this.freeCount; x != null && room > 0; room--) {
+            HeapNode next = x.getNext();
+            HeapNode child = x.getChild();
+            if (child != null) {
+                HeapNode last = child;
+                while (last.getNext() != null) {
+                    last = last.getNext();
+                }
+                last.setNext(next);
+                next = child;
+            }
+            this.retire(x);
+            x = next;
+        }
+        //the nodes which were not pooled are stale from now on
+        this.epoch.cleared = true;
+        this.epoch = new Epoch();
+        this.reset();
+    }
+
+   /**
+    * private void reset()
+    *
+    * Forgets all the nodes, as an empty heap.
+    *
+    * complexity : O(1)
+    */
+    private void reset() {
+        this.head = null;
+        this.tail = null;
+        this.min = null;
+        this.size = 0;
+        this.treeCount = 0;
+        this.markedCount = 0;
+        this.tombstones = 0;
+    }
+
     /**
     * public void meld (FibonacciHeap heap2)
     *
-    * Melds heap2 with the current heap.
+    * Melds heap2 with the current heap : the trees of heap2 move to the current heap, and heap2 is
+    * empty afterwards (it keeps its buffers and pool, and can be used again). Melding a heap with
+    * itself throws IllegalArgumentException.
     *
     * complexity : O(1)
     */
     public void meld (FibonacciHeap heap2) {
-        //if current heap is empty - update head and min
-        if (this.isEmpty()) {
-            this.head = heap2.getHead();
-            this.min = heap2.findMin();
-        } else {
-            //link the tail of the current list to the head of heap2
-            this.tail.setNext(heap2.getHead());
+        if (heap2 == this) {
+            throw new IllegalArgumentException("a heap cannot be melded with itself");
         }
-        //if heap2 not empty - connect heap2 head to current heap tail and check min
-        if (!heap2.isEmpty()) {
-            heap2.getHead().setPrev(this.tail);
+        if (heap2.head == null) {
+            return;
+        }
+        this.spliceRoots(heap2);
+        if (this.min == null || heap2.min.getKey() < this.min.getKey()) {
+            this.min = heap2.min;
+        }
+        heap2.reset();
+    }
 
-            //update min to be heap2 min if key is smaller
-            if (heap2.findMin().getKey() < this.min.getKey()) {
-                this.min = heap2.findMin();
+    /**
+    * public void meldAll (FibonacciHeap... heaps)
+    *
+    * Melds all the given heaps with the current heap, as meld does one by one, in one pass over the
+    * heaps. The min is compared with the min of every heap, and set once at the end.
+    * If the current heap is one of them, IllegalArgumentException is thrown before anything is melded.
+    *
+    * complexity : O(k), k = heaps.length
+    */
+    public void meldAll (FibonacciHeap... heaps) {
+        //check all the heaps first, so an error leaves every heap as it was
+        for (FibonacciHeap heap2 : heaps) {
+            if (heap2 == this) {
+                throw new IllegalArgumentException("a heap cannot be melded with itself");
             }
         }
-        this.tail = heap2.getTail();  //update heap tail to heap2 tail
-        this.size += heap2.size();  //update heap size
-        this.treeCount += heap2.getTreeCount();  //update heap tree count
-        this.markedCount += heap2.getMarkedCount();  //update heap marked nodes count
+        HeapNode newMin = this.min;
+        for (FibonacciHeap heap2 : heaps) {
+            if (heap2.head == null) {
+                continue;  //empty, or melded already
+            }
+            this.spliceRoots(heap2);
+            if (newMin == null || heap2.min.getKey() < newMin.getKey()) {
+                newMin = heap2.min;
+            }
+            heap2.reset();
+        }
+        this.min = newMin;
     }
 
+   /**
+    * private void spliceRoots(FibonacciHeap heap2)
+    *
+    * Appends the roots list of heap2 to the current one, and adds its counters. The min is not updated.
+    * @pre: heap2 is not empty
+    *
+    * complexity : O(1)
+    */
+    private void spliceRoots(FibonacciHeap heap2) {
+        if (this.head == null) {
+            this.head = heap2.head;
+        } else {
+            //link the tail of the current list to the head of heap2
+            this.tail.setNext(heap2.head);
+            heap2.head.setPrev(this.tail);
+        }
+        this.tail = heap2.tail;
+        //the nodes of heap2 are cleared with ours from now on, and heap2 starts a new epoch
+        heap2.epoch.parent = this.epoch;
+        heap2.epoch = new Epoch();
+        this.size += heap2.size;
+        this.tombstones += heap2.tombstones;
+        this.treeCount += heap2.treeCount;
+        this.markedCount += heap2.markedCount;
+    }
 
     /**
     * public int size()
     *
-    * Returns the number of elements in the heap.
+    * Returns the number of elements in the heap (cancelled nodes are not counted).
     *
     * complexity : O(1)
     */
     public int size() {
-    	return this.size;
+    	return this.size - this.tombstones;
     }
     	
     /**
@@ -359,7 +794,7 @@ public class FibonacciHeap {
     */
     public int[] countersRep() {
     	//if the heap is empty return empty array
-        if (this.isEmpty()) {
+        if (this.head == null) {
     	    return new int[0];
         }
         //find the maximum rank in the heap
@@ -382,21 +817,219 @@ public class FibonacciHeap {
         return counterRep;
     }
 	
+   /**
+    * private void removeRoot(HeapNode x)
+    *
+    * Removes the root x from the root list and puts its children in its place, as roots.
+    * treeCount and min are not updated - the caller consolidates or updates them.
+    * @pre: x is a root of this heap
+    *
+    * complexity : O(x.rank)
+    */
+    private void removeRoot(HeapNode x) {
+        HeapNode currChild = x.getChild();
+
+        //if x has a child (or children) - connect it (them) to root list
+        if (currChild != null) {
+            //connect left child to left brother of x
+            currChild.setPrev(x.getPrev());
+            if (x.getPrev() != null) {
+                x.getPrev().setNext(currChild);
+            }
+
+            //update x children to be independent trees
+            boolean seenHead = true;
+            boolean seenTail = true;
+            if (x == this.head) {
+                seenHead = false;
+            }
+            if (x == this.tail) {
+                seenTail = false;
+            }
+            while (currChild != null) {
+                if (!seenHead) {
+                    this.head = currChild;
+                    seenHead = true;
+                }
+                currChild.setParent(null);
+                if (currChild.getMarked()) {
+                    currChild.setMarked(false);
+                    this.markedCount--;
+                }
+                if (!currChild.hasNext()) {
+                    if (!seenTail) {
+                        this.tail = currChild;
+                    }
+                    break;
+                }
+                currChild = currChild.getNext();
+            }
+
+            //connect right child of x to x next
+            currChild.setNext(x.getNext());
+            if (x.getNext() != null) {
+                x.getNext().setPrev(currChild);
+            }
+
+        }
+        else {  //if x has no children - connect its left and right brothers unless they are the head to tail.
+            if (x != this.head) { //x has a left brother
+                x.getPrev().setNext(x.getNext());
+            } else {  //update new head
+                this.head = x.getNext();
+            }
+            if (x != this.tail) { //x has a right child
+                x.getNext().setPrev(x.getPrev());
+            } else { //update new tail
+                this.tail = x.getPrev();
+            }
+        }
+
+        //disconnect all x pointers
+        x.setChild(null);
+        x.setPrev(null);
+        x.setNext(null);
+    }
+
    /**
     * public void delete(HeapNode x)
     *
     * Deletes the node x from the heap.
 	* It is assumed that x indeed belongs to the heap.
+    * x is cut from its parent (with cascading cuts) and its children become roots in its place. The key
+    * of x is never changed, so there is no overflow for large keys. Only when x is the min the heap is
+    * consolidated (as deleteMin), otherwise the new roots are left for the next deleteMin.
     *
-    * complexity : O(n)
+    * complexity : O(log n) amortized, O(n) when x is the min
     */
     public void delete(HeapNode x) {
         if (x != null) {
-            this.decreaseKey(x, x.getKey() + this.min.getKey() + 10); //update x to be the minimum root
-            this.deleteMin();  //delete minimum and consolidate the heap
+            long start = METRICS_ENABLED && this.listener != null ? System.nanoTime() : 0L;
+            if (x.isCancelled()) {
+                this.tombstones--;
+            }
+            if (x == this.min) {
+                this.removeMin();  //delete minimum and consolidate the heap
+            } else {
+                //the children of x are not smaller than the min, so min stays
+                this.unlink(x);
+            }
+            if (METRICS_ENABLED && this.listener != null) {
+                this.listener.onDelete(System.nanoTime() - start);
+            }
         }
     }
 
+   /**
+    * private void unlink(HeapNode x)
+    *
+    * Cuts x to the roots list and removes it, its children become roots. min is not updated,
+    * so if x may be the min the caller consolidates the heap afterwards.
+    *
+    * complexity : O(log n) amortized
+    */
+    private void unlink(HeapNode x) {
+        if (!x.getIsRoot()) {
+            long cutsBefore = this.cutsCount;
+            this.cascadingCuts(x, x.getParent());
+            this.recordCuts((int) (this.cutsCount - cutsBefore));
+        }
+        this.treeCount += x.getRank() - 1;
+        this.removeRoot(x);
+        x.setRank(0);
+        this.size--;
+        this.retire(x);
+    }
+
+   /**
+    * public void cancel(HeapNode x)
+    *
+    * Deletes the node x from the heap lazily: x is only flagged as cancelled, and is no longer counted by
+    * size, returned by findMin, deleteMin or kMin. A cancelled node is really deleted when it becomes the
+    * min, or when the cancelled nodes are more than the purge ratio of the heap nodes, by purge.
+    * Cancelling a cancelled node does nothing.
+	* It is assumed that x indeed belongs to the heap.
+    *
+    * complexity : O(1), O(n) amortized when it purges
+    */
+    public void cancel(HeapNode x) {
+        if (x != null && !x.isCancelled()) {
+            x.setCancelled(true);
+            this.tombstones++;
+            if (this.tombstones > this.purgeRatio * this.size) {
+                this.purge();
+            }
+        }
+    }
+
+   /**
+    * public void purge()
+    *
+    * Deletes all the cancelled nodes from the heap, and consolidates it once.
+    *
+    * complexity : O(n)
+    */
+    public void purge() {
+        if (this.tombstones == 0) {
+            return;
+        }
+        //collect the cancelled nodes - a walk over all the nodes, which uses the parent pointers as a stack
+        HeapNode[] cancelled = new HeapNode[this.tombstones];
+        int count = 0;
+        HeapNode x = this.head;
+        while (x != null) {
+            if (x.isCancelled()) {
+                cancelled[count++] = x;
+            }
+            if (x.getChild() != null) {
+                x = x.getChild();
+            } else {
+                while (x != null && x.getNext() == null) {
+                    x = x.getParent();
+                }
+                if (x != null) {
+                    x = x.getNext();
+                }
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            this.unlink(cancelled[i]);
+        }
+        this.tombstones = 0;
+
+        //consolidate heap - also updates heap tree count and min
+        if (this.head != null) {
+            this.consolidate();
+        } else {
+            this.min = null;
+            this.treeCount = 0;
+        }
+    }
+
+   /**
+    * public int getCancelledCount()
+    *
+    * Returns the number of cancelled nodes which are still in the heap.
+    *
+    * complexity : O(1)
+    */
+    public int getCancelledCount() {
+        return this.tombstones;
+    }
+
+   /**
+    * public void setPurgeRatio(double ratio)
+    *
+    * Sets the part of the heap nodes which may be cancelled before cancel purges the heap (0.5 by default).
+    * A ratio of 1 or more turns the automatic purge off.
+    *
+    * complexity : O(1)
+    */
+    public void setPurgeRatio(double ratio) {
+        this.purgeRatio = ratio;
+    }
+
    /**
     * public void decreaseKey(HeapNode x, int delta)
     *
@@ -407,40 +1040,164 @@ public class FibonacciHeap {
     */
     public void decreaseKey(HeapNode x, int delta) {
         if (x != null) {
+            long start = METRICS_ENABLED && this.listener != null ? System.nanoTime() : 0L;
+            long cutsBefore = this.cutsCount;
             x.setKey(x.getKey() - delta);  //decrease x key by delta
             //if the heap is illegal - use cascading cuts
             if (!x.getIsRoot() && x.getParent().getKey() > x.getKey()) {
                 this.cascadingCuts(x, x.getParent());
+                this.recordCuts((int) (this.cutsCount - cutsBefore));
             } else {
                 if (x.getIsRoot() && x.getKey() < this.min.getKey()) {
                     this.min = x;
                 }
             }
+            if (METRICS_ENABLED && this.listener != null) {
+                this.listener.onDecreaseKey(System.nanoTime() - start, (int) (this.cutsCount - cutsBefore));
+            }
+        }
+    }
+
+   /**
+    * public void increaseKey(HeapNode x, int delta)
+    *
+    * Increases the key of the node x by a non-negative value delta, in place - x stays the same node.
+    * If children of x become smaller than x, x is cut from its parent (with cascading cuts, as it loses
+    * several children at once) and those children are cut to the roots list. If x was the min, the
+    * heap is consolidated to find the new min.
+    *
+    * complexity : O(log n) amortized, O(n) when x is the min
+    */
+    public void increaseKey(HeapNode x, int delta) {
+        if (x != null) {
+            long cutsBefore = this.cutsCount;
+            boolean wasMin = x == this.min;  //cut may move min to a child of x
+            x.setKey(x.getKey() + delta);  //increase x key by delta
+
+            //check whether some children of x are now smaller than x
+            boolean violated = false;
+            for (HeapNode child = x.getChild(); child != null; child = child.getNext()) {
+                if (child.getKey() < x.getKey()) {
+                    violated = true;
+                    break;
+                }
+            }
+            if (violated) {
+                //cut x to the roots list, and then its smaller children
+                if (!x.getIsRoot()) {
+                    this.cascadingCuts(x, x.getParent());
+                }
+                HeapNode child = x.getChild();
+                while (child != null) {
+                    HeapNode next = child.getNext();
+                    if (child.getKey() < x.getKey()) {
+                        this.cut(child, x);
+                    }
+                    child = next;
+                }
+                this.recordCuts((int) (this.cutsCount - cutsBefore));
+            }
+
+            //the min can only change if x was the min
+            if (wasMin) {
+                this.consolidate();
+            }
         }
     }
 
+   /**
+    * public void updateKey(HeapNode x, int newKey)
+    *
+    * Sets the key of the node x to newKey, with decreaseKey or increaseKey - x stays the same node.
+    *
+    * complexity : O(log n) amortized, O(n) when x is the min and newKey is larger
+    */
+    public void updateKey(HeapNode x, int newKey) {
+        if (x != null) {
+            //the delta may overflow, but int arithmetic wraps so the key becomes exactly newKey
+            if (newKey < x.getKey()) {
+                this.decreaseKey(x, x.getKey() - newKey);
+            } else if (newKey > x.getKey()) {
+                this.increaseKey(x, newKey - x.getKey());
+            }
+        }
+    }
+
+   /**
+    * public void decreaseKey(HeapNode x, int generation, int delta)
+    *
+    * decreaseKey for a handle (x, generation) - throws IllegalStateException if x was deleted since.
+    *
+    * complexity : O(log n)
+    */
+    public void decreaseKey(HeapNode x, int generation, int delta) {
+        this.checkLive(x, generation);
+        this.decreaseKey(x, delta);
+    }
+
+   /**
+    * public void updateKey(HeapNode x, int generation, int newKey)
+    *
+    * updateKey for a handle (x, generation) - throws IllegalStateException if x was deleted since.
+    *
+    * complexity : O(log n) amortized, O(n) when x is the min and newKey is larger
+    */
+    public void updateKey(HeapNode x, int generation, int newKey) {
+        this.checkLive(x, generation);
+        this.updateKey(x, newKey);
+    }
+
+   /**
+    * public void delete(HeapNode x, int generation)
+    *
+    * delete for a handle (x, generation) - throws IllegalStateException if x was deleted since.
+    *
+    * complexity : O(log n) amortized, O(n) when x is the min
+    */
+    public void delete(HeapNode x, int generation) {
+        this.checkLive(x, generation);
+        this.delete(x);
+    }
+
+   /**
+    * public void cancel(HeapNode x, int generation)
+    *
+    * cancel for a handle (x, generation) - throws IllegalStateException if x was deleted since.
+    *
+    * complexity : O(1), O(n) amortized when it purges
+    */
+    public void cancel(HeapNode x, int generation) {
+        this.checkLive(x, generation);
+        this.cancel(x);
+    }
+
     /**
      * private void cascadingCuts(HeapNode x, HeapNode y)
      *
      * if child is smaller than parent- cut child from tree
-     * if parent is not a root and is not marked - mark it. else - call recursively to cascadingCuts
+     * if parent is not a root and is not marked - mark it. else - cut the parent too, and go on
+     * with its own parent, until reaching a root or an unmarked node
+     * a loop and not a recursion, so a long path of marked nodes does not overflow the stack
      * @pre: x != null && y != null
      *
-     * complexity : O(log n)
+     * complexity : O(log n) amortized, O(number of marked ancestors) worst case
      */
     private void cascadingCuts(HeapNode x, HeapNode y) {
-        this.cut(x,y);  //cut x from its parent y
+        while (true) {
+            this.cut(x,y);  //cut x from its parent y
 
-        if (!(y.getIsRoot())) {  //mark y if it is not a root
-            //if y is not marked - mark it
+            if (y.getIsRoot()) {  //a root is never marked - stop
+                return;
+            }
+            //if y is not marked - mark it and stop
             if (y.getMarked() == false) {
                 y.setMarked(true);
                 this.markedCount++;
+                return;
             }
-            //if y is already marked - call cascading cur recursively
-            else {
-                this.cascadingCuts(y, y.getParent());
-            }
+            //if y is already marked - cut it from its parent as well
+            x = y;
+            y = y.getParent();
         }
     }
 
@@ -453,14 +1210,13 @@ public class FibonacciHeap {
      * complexity : O(1)
      */
     private void cut(HeapNode x, HeapNode y) {
-        cutsCount++;
+        this.cutsCount++;
         //x becomes a root - update fields accordingly
         this.treeCount++;  //update treeCount
         if (x.getMarked()) {  //if x was marked - turn it off and update markedCount of the heap
             x.setMarked(false);
             this.markedCount--;
         }
-        x.setIsRoot(true);
         x.setParent(null);
 
         //update min if x key is smaller than min key
@@ -508,73 +1264,281 @@ public class FibonacciHeap {
     	return this.treeCount + 2 * this.markedCount;
     }
 
+    /**
+     * private void recordCuts(int cuts)
+     *
+     * records a chain of cuts made by one decreaseKey in the statistics.
+     *
+     * complexity : O(1)
+     */
+    private void recordCuts(int cuts) {
+        if (this.cascadingCutsHistogram == null) {
+            this.cascadingCutsHistogram = new long[HISTOGRAM_SIZE];
+        }
+        this.cascadingCutsHistogram[Math.min(cuts, HISTOGRAM_SIZE - 1)]++;
+        totalCutsAdder.add(cuts);
+    }
+
+   /**
+    * public long getLinksCount()
+    *
+    * return the number of link operations made by this heap
+    *
+    * complexity : O(1)
+    */
+    public long getLinksCount() {
+        return this.linksCount;
+    }
+
+   /**
+    * public long getCutsCount()
+    *
+    * return the number of cut operations made by this heap
+    *
+    * complexity : O(1)
+    */
+    public long getCutsCount() {
+        return this.cutsCount;
+    }
+
+   /**
+    * public long getConsolidationsCount()
+    *
+    * return the number of times this heap was consolidated
+    *
+    * complexity : O(1)
+    */
+    public long getConsolidationsCount() {
+        return this.consolidationsCount;
+    }
+
+   /**
+    * public long getRootsScannedCount()
+    *
+    * return the total number of roots visited by the consolidations of this heap
+    *
+    * complexity : O(1)
+    */
+    public long getRootsScannedCount() {
+        return this.rootsScannedCount;
+    }
+
+   /**
+    * public long[] getCascadingCutsHistogram()
+    *
+    * return a histogram of the cascading cuts of this heap: the i-th entry is the number of
+    * decreaseKey/delete calls which made i cuts. The last entry also counts longer chains.
+    *
+    * complexity : O(1)
+    */
+    public long[] getCascadingCutsHistogram() {
+        if (this.cascadingCutsHistogram == null) {
+            return new long[HISTOGRAM_SIZE];
+        }
+        return Arrays.copyOf(this.cascadingCutsHistogram, HISTOGRAM_SIZE);
+    }
+
+   /**
+    * public void setListener(HeapListener listener)
+    *
+    * Sets a listener which is told about every deleteMin, decreaseKey and delete of this heap,
+    * with its duration and work counts, or removes it (null).
+    * The listener is called only when the JVM runs with -Dfibheap.metrics=true. Otherwise the
+    * checks are on a static final false and the JIT removes them, so the heap pays nothing.
+    *
+    * complexity : O(1)
+    */
+    public void setListener(HeapListener listener) {
+        this.listener = listener;
+    }
+
    /**
     * public static int totalLinks() 
     *
     * This static function returns the total number of link operations made during the
-    * run-time of the program. A link operation is the operation which gets as input two
+    * run-time of the program, by all the heaps (see getLinksCount for a single heap). A link operation is the operation which gets as input two
     * trees of the same rank, and generates a tree of rank bigger by one, by hanging the
     * tree which has larger value in its root under the other tree.
     *
     * complexity : O(1)
     */
     public static int totalLinks() {
-    	return linkedCount;
+    	return totalLinksAdder.intValue();
     }
 
    /**
     * public static int totalCuts() 
     *
     * This static function returns the total number of cut operations made during the
-    * run-time of the program. A cut operation is the operation which disconnects a subtree
+    * run-time of the program, by all the heaps (see getCutsCount for a single heap). A cut operation is the operation which disconnects a subtree
     * from its parent (during decreaseKey/delete methods).
     *
     * complexity : O(1)
     */
     public static int totalCuts() {
-    	return cutsCount;
+    	return totalCutsAdder.intValue();
     }
 
      /**
-    * public static int[] kMin(FibonacciHeap H, int k) 
+    * public static int[] kMin(FibonacciHeap H, int k)
     *
-    * This static function returns the k smallest elements in a Fibonacci heap that contains a single tree.
-    * The function should run in O(k*deg(H)). (deg(H) is the degree of the only tree in H.)
-    *  
-    * ###CRITICAL### : you are NOT allowed to change H.
+    * This static function returns the k smallest elements in a Fibonacci heap, in ascending order
+    * (all the elements if H has less than k). H may contain any number of trees.
+    * The nodes are visited with a binary heap of candidates, which starts with the roots of H, and
+    * every visited node adds its children. H itself is not changed - not even its scratch state -
+    * so kMin may run alongside other readers of H.
     *
-    * complexity : O(k deg(H))
+    * complexity : O(#trees + k log(#trees + k deg(H)))
     */
     public static int[] kMin(FibonacciHeap H, int k) {
-        if (k == 0 || H.isEmpty()) {
-            return new int[0];
+        int[] kMinNodes = new int[Math.max(0, Math.min(k, H.size()))];  //cancelled nodes are skipped
+        if (kMinNodes.length == 0) {
+            return kMinNodes;
         }
+        //a queue of its own, so reading H never writes to it
+        NodeQueue candidates = new NodeQueue();
+        for (HeapNode root = H.getHead(); root != null; root = root.getNext()) {
+            candidates.add(root);
+        }
+        candidates.heapify();
 
-        FibonacciHeap heapForKMin = new FibonacciHeap();
-        int[] kMinNodes = new int[k];
+        for (int i = 0; i < kMinNodes.length; ) {
+            HeapNode currMin = candidates.poll();
+            if (!currMin.isCancelled()) {
+                kMinNodes[i++] = currMin.getKey();
+            }
+            for (HeapNode minChild = currMin.getChild(); minChild != null; minChild = minChild.getNext()) {
+                candidates.push(minChild);
+            }
+        }
+        return kMinNodes;
+    }
 
-        HeapNode currMin; // hold the node in H with the same key as the min in heapForKMin.
-        HeapNode minChild; // hold one of the children of tempMin.
-        HeapNode temp; // hold the last inserted node to heapForKMin.
+   /**
+    * static class NodeQueue
+    *
+    * A growable binary min-heap of nodes, ordered by key. Used as the candidates queue when
+    * taking (deleteMinBatch) or reading (kMin) the smallest nodes of the forest. deleteMinBatch
+    * keeps its queue between calls so it does not allocate; kMin makes its own.
+    */
+    static class NodeQueue {
+        private HeapNode[] nodes = new HeapNode[16];
+        private int size = 0;
+
+        int size() {
+            return this.size;
+        }
+
+        HeapNode get(int i) {
+            return this.nodes[i];
+        }
 
-        temp = heapForKMin.insert(H.findMin().getKey());
-        temp.setkMin(H.findMin());
+       /**
+        * appends x without restoring heap order - call heapify after a series of add
+        * complexity : O(1) amortized
+        */
+        void add(HeapNode x) {
+            if (this.size == this.nodes.length) {
+                this.nodes = Arrays.copyOf(this.nodes, 2 * this.size);
+            }
+            this.nodes[this.size++] = x;
+        }
 
-        for (int i = 0; i < k; i++) {
-            currMin = heapForKMin.findMin().getkMin();
-            kMinNodes[i] = currMin.getKey();
-            heapForKMin.deleteMin();
-            minChild = currMin.getChild();
+       /**
+        * restores heap order after a series of add
+        * complexity : O(size)
+        */
+        void heapify() {
+            for (int i = (this.size >> 1) - 1; i >= 0; i--) {
+                this.siftDown(i);
+            }
+        }
 
-            while (minChild != null) {
-                temp = heapForKMin.insert(minChild.getKey());
-                temp.setkMin(minChild);
-                minChild = minChild.getNext();
+       /**
+        * complexity : O(log size)
+        */
+        void push(HeapNode x) {
+            this.add(x);
+            int i = this.size - 1;
+            int key = x.getKey();
+            while (i > 0) {
+                int parent = (i - 1) >> 1;
+                if (this.nodes[parent].getKey() <= key) {
+                    break;
+                }
+                this.nodes[i] = this.nodes[parent];
+                i = parent;
             }
+            this.nodes[i] = x;
+        }
+
+       /**
+        * removes and returns the node with the minimal key
+        * complexity : O(log size)
+        */
+        HeapNode poll() {
+            HeapNode first = this.nodes[0];
+            this.size--;
+            this.nodes[0] = this.nodes[this.size];
+            this.nodes[this.size] = null;
+            if (this.size > 0) {
+                this.siftDown(0);
+            }
+            return first;
+        }
+
+       /**
+        * removes all the nodes (and the references to them)
+        * complexity : O(size)
+        */
+        void clear() {
+            Arrays.fill(this.nodes, 0, this.size, null);
+            this.size = 0;
+        }
+
+        private void siftDown(int i) {
+            HeapNode x = this.nodes[i];
+            int key = x.getKey();
+            int half = this.size >> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < this.size && this.nodes[child + 1].getKey() < this.nodes[child].getKey()) {
+                    child++;
+                }
+                if (key <= this.nodes[child].getKey()) {
+                    break;
+                }
+                this.nodes[i] = this.nodes[child];
+                i = child;
+            }
+            this.nodes[i] = x;
+        }
+    }
+
+   /**
+    * static final class Epoch
+    *
+    * The nodes inserted into a heap between two clears share an epoch, and clear closes it in O(1).
+    * meld links the epoch of the melded heap under the current one (as in union-find), so a clear
+    * closes the epochs of all the nodes which are in the heap. isCleared follows the links to the
+    * root, halving the path on the way.
+    */
+    static final class Epoch {
+        private Epoch parent = null;
+        private boolean cleared = false;
+
+        boolean isCleared() {
+            Epoch e = this;
+            while (e.parent != null) {
+                if (e.parent.parent != null) {
+                    e.parent = e.parent.parent;
+                }
+                e = e.parent;
+            }
+            return e.cleared;
         }
-        return kMinNodes;
     }
-    
+
    /**
     * public class HeapNode
     * 
@@ -582,18 +1546,22 @@ public class FibonacciHeap {
     * (for example HeapNode), do it in this file, not in another file.
     *
     */
-    public static class HeapNode{
+    public static class HeapNode implements PriorityHeap.Node {
 
     	public int key;
-    	private String info;
-    	private int rank = 0;
-    	private boolean mark = false;
+    	private int bits = 0;  //rank in the low bits, the MARKED and CANCELLED flags, then the generation
     	private HeapNode child = null;
     	private HeapNode next = null;
     	private HeapNode prev = null;
     	private HeapNode parent = null;
-    	private boolean isRoot = false;
-    	private HeapNode kMin = null;
+    	private Epoch epoch = null;  //of the heap the node was inserted in - closed by clear
+
+    	//a rank is at most 1.44 log2(n) < 64, so 8 bits hold it, and the generation takes the 22 bits
+    	//left over - this keeps the node at 40 bytes with the epoch reference
+    	private static final int RANK_MASK = 0xFF;
+    	private static final int MARKED = 1 << 8;
+    	private static final int CANCELLED = 1 << 9;
+    	private static final int GENERATION_SHIFT = 10;
 
     	public HeapNode(int key) {
     	    this.key = key;
@@ -616,27 +1584,52 @@ public class FibonacciHeap {
         }
 
        /**
-        * return node info
+        * return node rank
         * complexity : O(1)
         */
-       public String getValue() {
-           return this.info;
+       public int getRank() {
+           return this.bits & RANK_MASK;
        }
 
        /**
-        * return node rank
+        * update node rank to r
         * complexity : O(1)
         */
-       public int getRank() {
-           return this.rank;
+       public void setRank(int r) {
+           this.bits = (this.bits & ~RANK_MASK) | r;
        }
 
        /**
-        * update node rank to r
+        * return node generation - it changes when the node is deleted (see FibonacciHeap.isLive),
+        * and wraps around after 2^22 deletes of the same node
         * complexity : O(1)
         */
-       public void setRank(int r) {
-           this.rank = r;
+       public int getGeneration() {
+           return this.bits >>> GENERATION_SHIFT;
+       }
+
+       /**
+        * advance node generation - the carry out of the top bit is dropped, so it wraps to 0
+        * complexity : O(1)
+        */
+       private void nextGeneration() {
+           this.bits += 1 << GENERATION_SHIFT;
+       }
+
+       /**
+        * return true if the node was cancelled (see FibonacciHeap.cancel)
+        * complexity : O(1)
+        */
+       public boolean isCancelled() {
+           return (this.bits & CANCELLED) != 0;
+       }
+
+       /**
+        * update node cancelled flag to b
+        * complexity : O(1)
+        */
+       private void setCancelled(boolean b) {
+           this.bits = b ? this.bits | CANCELLED : this.bits & ~CANCELLED;
        }
 
        /**
@@ -644,7 +1637,7 @@ public class FibonacciHeap {
         * complexity : O(1)
         */
        public boolean getMarked() {
-           return this.mark;
+           return (this.bits & MARKED) != 0;
        }
 
        /**
@@ -652,7 +1645,7 @@ public class FibonacciHeap {
         * complexity : O(1)
         */
        public void setMarked(boolean b) {
-           this.mark = b;
+           this.bits = b ? this.bits | MARKED : this.bits & ~MARKED;
        }
 
        /**
@@ -728,35 +1721,11 @@ public class FibonacciHeap {
        }
 
        /**
-        * return node isRoot
+        * return true if the node is a root - a root is a node without a parent
         * complexity : O(1)
         */
        public boolean getIsRoot() {
-           return this.isRoot;
-       }
-
-       /**
-        * update node isRoot to b
-        * complexity : O(1)
-        */
-       public void setIsRoot(boolean b) {
-           this.isRoot = b;
-       }
-
-       /**
-        * return node kMin
-        * complexity : O(1)
-        */
-       public HeapNode getkMin() {
-           return this.kMin;
-       }
-
-       /**
-        * update node kMin to node
-        * complexity : O(1)
-        */
-       public void setkMin(HeapNode node) {
-           this.kMin = node;
+           return this.parent == null;
        }
 
    }
@@ -0,0 +1,280 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Graph
+ *
+ * A weighted directed graph in compressed sparse row form : the edges leaving vertex v are
+ * targets[offsets[v] .. offsets[v + 1] - 1] with the matching weights, and offsets has n + 1 entries.
+ * The arrays are used as given, not copied.
+ *
+ * dijkstra and prim run on an IndexedFibonacciHeap of the vertices, so a vertex is in the heap at most
+ * once and a shorter path lowers its key with decreaseKey. Their results are primitive arrays.
+ */
+public class Graph {
+    /** the distance (or key) of a vertex which was not reached */
+    public static final int UNREACHED = Integer.MAX_VALUE;
+
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+
+    public Graph(int[] offsets, int[] targets, int[] weights) {
+        if (offsets.length == 0 || offsets[0] != 0 || offsets[offsets.length - 1] != targets.length ||
+                targets.length != weights.length) {
+            throw new IllegalArgumentException("offsets, targets and weights do not form a CSR graph");
+        }
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+   /**
+    * public static Graph fromEdges(int n, int[] from, int[] to, int[] weight)
+    *
+    * Builds the CSR graph of n vertices and the edges from[i] -> to[i] of weight weight[i].
+    * The edges of every vertex keep their order in the input.
+    *
+    * complexity : O(n + m)
+    */
+    public static Graph fromEdges(int n, int[] from, int[] to, int[] weight) {
+        int[] offsets = new int[n + 1];
+        for (int u : from) {
+            offsets[u + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] next = Arrays.copyOf(offsets, n);
+        int[] targets = new int[from.length];
+        int[] weights = new int[from.length];
+        for (int i = 0; i < from.length; i++) {
+            int slot = next[from[i]]++;
+            targets[slot] = to[i];
+            weights[slot] = weight[i];
+        }
+        return new Graph(offsets, targets, weights);
+    }
+
+   /**
+    * public int vertexCount()
+    *
+    * Returns the number of vertices.
+    *
+    * complexity : O(1)
+    */
+    public int vertexCount() {
+        return this.offsets.length - 1;
+    }
+
+   /**
+    * public int edgeCount()
+    *
+    * Returns the number of edges.
+    *
+    * complexity : O(1)
+    */
+    public int edgeCount() {
+        return this.targets.length;
+    }
+
+    public int[] getOffsets() {
+        return this.offsets;
+    }
+
+    public int[] getTargets() {
+        return this.targets;
+    }
+
+    public int[] getWeights() {
+        return this.weights;
+    }
+
+   /**
+    * public Tree dijkstra(int source)
+    *
+    * Returns the shortest paths tree from source : the distance of every vertex (UNREACHED if there is
+    * no path) and its parent on a shortest path (-1 for source and the unreached vertices).
+    * @pre: the weights are non-negative, and every distance is smaller than UNREACHED
+    *
+    * complexity : O(m + n log n)
+    */
+    public Tree dijkstra(int source) {
+        return this.dijkstra(source, new IndexedFibonacciHeap(this.vertexCount()));
+    }
+
+   /**
+    * public Tree[] dijkstraBatch(int[] sources, ForkJoinPool pool)
+    *
+    * Returns the shortest paths trees of all the sources, as dijkstra(sources[i]) at index i.
+    * The sources are split into chunks which run as tasks of pool. Each task has its own heap and
+    * reuses it, with its nodes, for every source of its chunk, so the heaps are confined to one
+    * thread - the graph is only read, and is shared.
+    * @pre: as for dijkstra
+    *
+    * complexity : O(k (m + n log n)) work for k sources
+    */
+    public Tree[] dijkstraBatch(int[] sources, ForkJoinPool pool) {
+        Tree[] trees = new Tree[sources.length];
+        int chunk = Math.max(1, sources.length / (4 * pool.getParallelism()));
+        pool.invoke(new BatchTask(sources, trees, 0, sources.length, chunk));
+        return trees;
+    }
+
+   /**
+    * private Tree dijkstra(int source, IndexedFibonacciHeap heap)
+    *
+    * dijkstra on the given heap, which is empty before and after.
+    */
+    private Tree dijkstra(int source, IndexedFibonacciHeap heap) {
+        int n = this.vertexCount();
+        Tree tree = new Tree(n);
+        int[] dist = tree.dist;
+        int[] parent = tree.parent;
+        dist[source] = 0;
+        heap.insert(source, 0);
+        while (!heap.isEmpty()) {
+            int d = heap.minKey();
+            int u = heap.deleteMin();
+            for (int e = this.offsets[u]; e < this.offsets[u + 1]; e++) {
+                int v = this.targets[e];
+                int candidate = d + this.weights[e];
+                //with non-negative weights, a settled vertex is never improved, so v is new or in the heap
+                if (candidate < dist[v]) {
+                    if (dist[v] == UNREACHED) {
+                        heap.insert(v, candidate);
+                    } else {
+                        heap.decreaseKeyTo(v, candidate);
+                    }
+                    dist[v] = candidate;
+                    parent[v] = u;
+                }
+            }
+        }
+        return tree;
+    }
+
+   /**
+    * public Tree prim(int root)
+    *
+    * Returns the minimum spanning tree of the component of root : the parent of every vertex in the tree
+    * (-1 for root and the vertices outside the component), and the weight of the edge to its parent
+    * (0 for root, UNREACHED outside the component).
+    * @pre: the graph is undirected - every edge u -> v of weight w has an edge v -> u of weight w
+    *
+    * complexity : O(m + n log n)
+    */
+    public Tree prim(int root) {
+        int n = this.vertexCount();
+        Tree tree = new Tree(n);
+        int[] key = tree.dist;
+        int[] parent = tree.parent;
+        boolean[] inTree = new boolean[n];
+        IndexedFibonacciHeap heap = new IndexedFibonacciHeap(n);
+        key[root] = 0;
+        heap.insert(root, 0);
+        while (!heap.isEmpty()) {
+            int u = heap.deleteMin();
+            inTree[u] = true;
+            for (int e = this.offsets[u]; e < this.offsets[u + 1]; e++) {
+                int v = this.targets[e];
+                int w = this.weights[e];
+                if (!inTree[v] && w < key[v]) {
+                    if (key[v] == UNREACHED) {
+                        heap.insert(v, w);
+                    } else {
+                        heap.decreaseKeyTo(v, w);
+                    }
+                    key[v] = w;
+                    parent[v] = u;
+                }
+            }
+        }
+        return tree;
+    }
+
+   /**
+    * private class BatchTask
+    *
+    * Runs the sources in [from, to) - split in halves down to chunk sources, which run on one heap.
+    */
+    private class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] sources;
+        private final Tree[] trees;
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        BatchTask(int[] sources, Tree[] trees, int from, int to, int chunk) {
+            this.sources = sources;
+            this.trees = trees;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from > this.chunk) {
+                int middle = (this.from + this.to) >>> 1;
+                invokeAll(new BatchTask(this.sources, this.trees, this.from, middle, this.chunk),
+                        new BatchTask(this.sources, this.trees, middle, this.to, this.chunk));
+                return;
+            }
+            IndexedFibonacciHeap heap = new IndexedFibonacciHeap(Graph.this.vertexCount());
+            for (int i = this.from; i < this.to; i++) {
+                this.trees[i] = Graph.this.dijkstra(this.sources[i], heap);
+            }
+        }
+    }
+
+   /**
+    * public static class Tree
+    *
+    * The result of dijkstra or prim, indexed by vertex.
+    */
+    public static class Tree {
+        private final int[] dist;
+        private final int[] parent;
+
+        Tree(int n) {
+            this.dist = new int[n];
+            this.parent = new int[n];
+            Arrays.fill(this.dist, UNREACHED);
+            Arrays.fill(this.parent, -1);
+        }
+
+       /**
+        * public int[] getDist()
+        *
+        * Returns the distances for dijkstra, or the weights of the edges to the parents for prim.
+        */
+        public int[] getDist() {
+            return this.dist;
+        }
+
+        public int[] getParent() {
+            return this.parent;
+        }
+
+       /**
+        * public long totalWeight()
+        *
+        * Returns the sum of getDist() over the reached vertices - the weight of the tree for prim.
+        *
+        * complexity : O(n)
+        */
+        public long totalWeight() {
+            long total = 0;
+            for (int d : this.dist) {
+                if (d != UNREACHED) {
+                    total += d;
+                }
+            }
+            return total;
+        }
+    }
+}
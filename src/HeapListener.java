@@ -0,0 +1,25 @@
+/**
+ * HeapListener
+ *
+ * Receives the duration (in nanoseconds) and the amount of work of the operations of a FibonacciHeap.
+ * See FibonacciHeap.setListener - a listener is only called when the JVM runs with -Dfibheap.metrics=true.
+ * The calls are made on the thread using the heap, inside the operation, so they should be cheap.
+ */
+public interface HeapListener {
+
+   /**
+    * called after a deleteMin. consolidateNanos is the part of nanos spent in consolidate,
+    * roots is the number of roots consolidate visited and links the number of links it made.
+    */
+    void onDeleteMin(long nanos, long consolidateNanos, int roots, int links);
+
+   /**
+    * called after a decreaseKey, with the number of cuts it made (the depth of the cascading cuts).
+    */
+    void onDecreaseKey(long nanos, int cuts);
+
+   /**
+    * called after a delete.
+    */
+    void onDelete(long nanos);
+}
@@ -0,0 +1,161 @@
+import java.util.Arrays;
+
+/**
+ * HeapMetrics
+ *
+ * A HeapListener which records the latencies and work counts of a FibonacciHeap in histograms:
+ * deleteMin and consolidate durations, roots visited and links made per deleteMin, decreaseKey
+ * durations and cascading cut depths, and delete durations.
+ * Not thread safe - use one instance per heap (a heap is not thread safe either).
+ */
+public class HeapMetrics implements HeapListener {
+    public final Histogram deleteMinNanos = new Histogram();
+    public final Histogram consolidateNanos = new Histogram();
+    public final Histogram rootsPerDeleteMin = new Histogram();
+    public final Histogram linksPerDeleteMin = new Histogram();
+    public final Histogram decreaseKeyNanos = new Histogram();
+    public final Histogram cutDepth = new Histogram();
+    public final Histogram deleteNanos = new Histogram();
+
+    @Override
+    public void onDeleteMin(long nanos, long consolidateNanos, int roots, int links) {
+        this.deleteMinNanos.record(nanos);
+        this.consolidateNanos.record(consolidateNanos);
+        this.rootsPerDeleteMin.record(roots);
+        this.linksPerDeleteMin.record(links);
+    }
+
+    @Override
+    public void onDecreaseKey(long nanos, int cuts) {
+        this.decreaseKeyNanos.record(nanos);
+        this.cutDepth.record(cuts);
+    }
+
+    @Override
+    public void onDelete(long nanos) {
+        this.deleteNanos.record(nanos);
+    }
+
+   /**
+    * public String toString()
+    *
+    * Returns a report of count, mean, p50, p99, p99.9 and max of every histogram, one per line.
+    */
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        this.append(report, "deleteMin ns", this.deleteMinNanos);
+        this.append(report, "consolidate ns", this.consolidateNanos);
+        this.append(report, "roots/deleteMin", this.rootsPerDeleteMin);
+        this.append(report, "links/deleteMin", this.linksPerDeleteMin);
+        this.append(report, "decreaseKey ns", this.decreaseKeyNanos);
+        this.append(report, "cut depth", this.cutDepth);
+        this.append(report, "delete ns", this.deleteNanos);
+        return report.toString();
+    }
+
+    private void append(StringBuilder report, String name, Histogram histogram) {
+        report.append(String.format("%-16s count %10d  mean %10.1f  p50 %8d  p99 %8d  p99.9 %8d  max %10d%n",
+                name, histogram.getCount(), histogram.getMean(), histogram.getValueAtPercentile(50),
+                histogram.getValueAtPercentile(99), histogram.getValueAtPercentile(99.9), histogram.getMax()));
+    }
+
+   /**
+    * public static class Histogram
+    *
+    * A log-linear histogram of non negative longs, as in HdrHistogram: values below 32 are counted
+    * exactly, and every power of two range above is split into 32 equal buckets, so a recorded value
+    * is reported with a relative error below 1/32 (about 3%). Recording is O(1) and allocation free.
+    */
+    public static class Histogram {
+        private static final int SUB_BITS = 5;
+        private static final int SUB_COUNT = 1 << SUB_BITS;
+
+        private final long[] counts = new long[SUB_COUNT + (64 - SUB_BITS) * SUB_COUNT];
+        private long count = 0;
+        private long sum = 0;
+        private long max = 0;
+
+       /**
+        * public void record(long value)
+        *
+        * Records value, negative values are recorded as 0.
+        *
+        * complexity : O(1)
+        */
+        public void record(long value) {
+            if (value < 0) {
+                value = 0;
+            }
+            this.counts[index(value)]++;
+            this.count++;
+            this.sum += value;
+            if (value > this.max) {
+                this.max = value;
+            }
+        }
+
+        public long getCount() {
+            return this.count;
+        }
+
+        public long getMax() {
+            return this.max;
+        }
+
+        public double getMean() {
+            return this.count == 0 ? 0 : (double) this.sum / this.count;
+        }
+
+       /**
+        * public long getValueAtPercentile(double percentile)
+        *
+        * Returns the highest value of the bucket which holds the given percentile (0-100) of the
+        * recorded values, capped at the max. Returns 0 if nothing was recorded.
+        *
+        * complexity : O(#buckets)
+        */
+        public long getValueAtPercentile(double percentile) {
+            if (this.count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * this.count));
+            long seen = 0;
+            for (int i = 0; i < this.counts.length; i++) {
+                seen += this.counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValue(i), this.max);
+                }
+            }
+            return this.max;
+        }
+
+        public void reset() {
+            Arrays.fill(this.counts, 0);
+            this.count = 0;
+            this.sum = 0;
+            this.max = 0;
+        }
+
+        static int index(long value) {
+            if (value < SUB_COUNT) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);  //>= SUB_BITS
+            int shift = exponent - SUB_BITS;
+            return SUB_COUNT + shift * SUB_COUNT + (int) ((value >>> shift) - SUB_COUNT);
+        }
+
+        static long highestValue(int index) {
+            if (index < SUB_COUNT) {
+                return index;
+            }
+            int shift = (index - SUB_COUNT) / SUB_COUNT;
+            long sub = SUB_COUNT + (index - SUB_COUNT) % SUB_COUNT;
+            if (shift + SUB_BITS + 1 >= 64 && sub == 2 * SUB_COUNT - 1) {
+                return Long.MAX_VALUE;  //the last bucket, whose end does not fit in a long
+            }
+            return ((sub + 1) << shift) - 1;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * IndexedFibonacciHeap
+ *
+ * A Fibonacci heap of dense int ids in [0, capacity), each with an int key - as used by Dijkstra and
+ * Prim over vertex ids. The caller works with ids only : the node of every id is kept in an array
+ * inside the heap, and every node knows its id, so deleteMin returns the id of the min.
+ */
+public class IndexedFibonacciHeap {
+    private final IdHeap heap = new IdHeap();
+    private final IdNode[] nodes;
+
+    public IndexedFibonacciHeap(int capacity) {
+        this.nodes = new IdNode[capacity];
+        //nodes never leave this class, so deleted nodes are reused for the next inserts
+        this.heap.setNodePool(capacity);
+    }
+
+   /**
+    * public boolean isEmpty()
+    *
+    * Returns true if and only if the heap is empty.
+    *
+    * complexity : O(1)
+    */
+    public boolean isEmpty() {
+        return this.heap.isEmpty();
+    }
+
+   /**
+    * public int size()
+    *
+    * Returns the number of ids in the heap.
+    *
+    * complexity : O(1)
+    */
+    public int size() {
+        return this.heap.size();
+    }
+
+   /**
+    * public int capacity()
+    *
+    * Returns the number of possible ids - ids are in [0, capacity).
+    *
+    * complexity : O(1)
+    */
+    public int capacity() {
+        return this.nodes.length;
+    }
+
+   /**
+    * public void insert(int id, int key)
+    *
+    * Inserts id with the given key. Throws IllegalArgumentException if id is already in the heap.
+    *
+    * complexity : O(1)
+    */
+    public void insert(int id, int key) {
+        if (this.nodes[id] != null) {
+            throw new IllegalArgumentException("id " + id + " is already in the heap");
+        }
+        IdNode node = (IdNode) this.heap.insert(key);
+        node.id = id;
+        this.nodes[id] = node;
+    }
+
+   /**
+    * public boolean contains(int id)
+    *
+    * Returns true if id is in the heap.
+    *
+    * complexity : O(1)
+    */
+    public boolean contains(int id) {
+        return this.nodes[id] != null;
+    }
+
+   /**
+    * public int keyOf(int id)
+    *
+    * Returns the key of id. Throws NoSuchElementException if id is not in the heap.
+    *
+    * complexity : O(1)
+    */
+    public int keyOf(int id) {
+        return this.node(id).getKey();
+    }
+
+   /**
+    * public boolean decreaseKeyTo(int id, int key)
+    *
+    * Sets the key of id to key if key is smaller than its current key, and returns true if it did.
+    * Throws NoSuchElementException if id is not in the heap.
+    *
+    * complexity : O(log n) amortized
+    */
+    public boolean decreaseKeyTo(int id, int key) {
+        IdNode node = this.node(id);
+        if (key >= node.getKey()) {
+            return false;
+        }
+        //the delta may overflow, but int arithmetic wraps so the key becomes exactly key
+        this.heap.decreaseKey(node, node.getKey() - key);
+        return true;
+    }
+
+   /**
+    * public int minId()
+    *
+    * Returns the id with the minimal key, or -1 if the heap is empty.
+    *
+    * complexity : O(1)
+    */
+    public int minId() {
+        IdNode min = (IdNode) this.heap.findMin();
+        return min == null ? -1 : min.id;
+    }
+
+   /**
+    * public int minKey()
+    *
+    * Returns the minimal key. Throws NoSuchElementException if the heap is empty.
+    *
+    * complexity : O(1)
+    */
+    public int minKey() {
+        if (this.heap.isEmpty()) {
+            throw new NoSuchElementException("the heap is empty");
+        }
+        return this.heap.findMin().getKey();
+    }
+
+   /**
+    * public int deleteMin()
+    *
+    * Deletes the id with the minimal key and returns it, or returns -1 if the heap is empty.
+    *
+    * complexity : O(log n) amortized
+    */
+    public int deleteMin() {
+        IdNode min = (IdNode) this.heap.findMin();
+        if (min == null) {
+            return -1;
+        }
+        this.heap.deleteMin();
+        this.nodes[min.id] = null;
+        return min.id;
+    }
+
+   /**
+    * public void delete(int id)
+    *
+    * Deletes id from the heap. Throws NoSuchElementException if id is not in the heap.
+    *
+    * complexity : O(log n) amortized
+    */
+    public void delete(int id) {
+        this.heap.delete(this.node(id));
+        this.nodes[id] = null;
+    }
+
+   /**
+    * public void clear()
+    *
+    * Removes every id from the heap, keeping the id array and the buffers of the heap.
+    *
+    * complexity : O(capacity)
+    */
+    public void clear() {
+        this.heap.clear();
+        Arrays.fill(this.nodes, null);
+    }
+
+    private IdNode node(int id) {
+        IdNode node = this.nodes[id];
+        if (node == null) {
+            throw new NoSuchElementException("id " + id + " is not in the heap");
+        }
+        return node;
+    }
+
+   /**
+    * private static class IdHeap
+    *
+    * A FibonacciHeap whose nodes carry an id. The id is set by insert, so the nodes are pooled.
+    */
+    private static class IdHeap extends FibonacciHeap {
+        @Override
+        HeapNode createNode(int key) {
+            HeapNode node = this.reuseNode(key);
+            return node != null ? node : new IdNode(key);
+        }
+
+        @Override
+        boolean isPoolable(HeapNode x) {
+            return x instanceof IdNode;
+        }
+    }
+
+    private static class IdNode extends FibonacciHeap.HeapNode {
+        int id = -1;
+
+        IdNode(int key) {
+            super(key);
+        }
+    }
+}
@@ -0,0 +1,720 @@
+/**
+ * LongFibonacciHeap
+ *
+ * An implementation of a Fibonacci Heap over long keys.
+ * The same structure and algorithms as FibonacciHeap, with the keys kept unboxed in the nodes.
+ * Changes to the operations of FibonacciHeap should be applied here as well.
+ */
+public class LongFibonacciHeap {
+    private HeapNode head = null;
+    private HeapNode tail = null;
+    private HeapNode min = null;
+    private int size = 0;
+    private int treeCount = 0;
+    private int markedCount = 0;
+    private HeapNode[] buckets = new HeapNode[rankBound(1)];  //reusable consolidate buckets
+
+   /**
+    * public boolean isEmpty()
+    *
+    * Returns true if and only if the heap is empty.
+    *
+    * complexity : O(1)
+    */
+    public boolean isEmpty() {
+    	if (this.head == null) {
+    	    return true;
+        }
+    	return false;
+    }
+		
+   /**
+    * public HeapNode insert(long key)
+    *
+    * Creates a node (of type HeapNode) which contains the given key, and inserts it into the heap.
+    * The added key is assumed not to already belong to the heap.  
+    * 
+    * Returns the newly created node.
+    *
+    * complexity : O(1)
+    */
+    public HeapNode insert(long key) {
+    	HeapNode newHeapNode = new HeapNode(key);
+
+    	//update tail if heap is currently empty
+        if (this.isEmpty()) {
+            this.tail = newHeapNode;
+        }
+
+    	//insert node to head of linked roots list
+        newHeapNode.setNext(this.head);
+        if (this.head != null) {
+            this.head.setPrev(newHeapNode);
+        }
+        this.head = newHeapNode;
+
+        newHeapNode.setIsRoot(true);  //update node to be a root
+        this.size++;  //update heap size + 1
+        this.treeCount++;  //update number of trees + 1
+
+        //update min if necessary
+        if (this.min == null) {
+            this.min = newHeapNode;
+        } else if (key < this.min.getKey()) {
+            this.min = newHeapNode;
+        }
+    	return newHeapNode;
+    }
+
+   /**
+    * public void deleteMin()
+    *
+    * Deletes the node containing the minimum key.
+    *
+    * complexity : O(n)
+    */
+    public void deleteMin() {
+        if (this.min != null) {
+            this.removeRoot(this.min);
+
+            //consolidate heap - also updates heap tree count and min
+            if (!(this.isEmpty())) {
+                this.consolidate();
+            } else {
+                this.min = null;
+                this.treeCount = 0;
+            }
+
+            //update heap size
+            this.size--;
+        }
+    }
+
+   /**
+    * private void removeRoot(HeapNode x)
+    *
+    * Removes the root x from the root list and puts its children in its place, as roots.
+    * treeCount and min are not updated - the caller consolidates or updates them.
+    * @pre: x is a root of this heap
+    *
+    * complexity : O(x.rank)
+    */
+    private void removeRoot(HeapNode x) {
+        HeapNode currChild = x.getChild();
+
+        //if x has a child (or children) - connect it (them) to root list
+        if (currChild != null) {
+            //connect left child to left brother of x
+            currChild.setPrev(x.getPrev());
+            if (x.getPrev() != null) {
+                x.getPrev().setNext(currChild);
+            }
+
+            //update x children to be independent trees
+            boolean seenHead = true;
+            boolean seenTail = true;
+            if (x == this.head) {
+                seenHead = false;
+            }
+            if (x == this.tail) {
+                seenTail = false;
+            }
+            while (currChild != null) {
+                if (!seenHead) {
+                    this.head = currChild;
+                    seenHead = true;
+                }
+                currChild.setParent(null);
+                currChild.setIsRoot(true);
+                if (currChild.getMarked()) {
+                    currChild.setMarked(false);
+                    this.markedCount--;
+                }
+                if (!currChild.hasNext()) {
+                    if (!seenTail) {
+                        this.tail = currChild;
+                    }
+                    break;
+                }
+                currChild = currChild.getNext();
+            }
+
+            //connect right child of x to x next
+            currChild.setNext(x.getNext());
+            if (x.getNext() != null) {
+                x.getNext().setPrev(currChild);
+            }
+
+        }
+        else {  //if x has no children - connect its left and right brothers unless they are the head to tail.
+            if (x != this.head) { //x has a left brother
+                x.getPrev().setNext(x.getNext());
+            } else {  //update new head
+                this.head = x.getNext();
+            }
+            if (x != this.tail) { //x has a right child
+                x.getNext().setPrev(x.getPrev());
+            } else { //update new tail
+                this.tail = x.getPrev();
+            }
+        }
+
+        //disconnect all x pointers
+        x.setChild(null);
+        x.setPrev(null);
+        x.setNext(null);
+    }
+
+    /**
+     * private void consolidate()
+     *
+     * Successive Linking process on heap after deleteMin
+     * While the new root list is built from the buckets, the new min and tree count are updated,
+     * so deleteMin does not need another pass over the roots.
+     * The buckets array is kept between calls and only grows when the size of the heap crosses
+     * the next rank bound, so consolidation does not allocate.
+     * pre : heap is not empty
+     *
+     * complexity : O(n)
+     */
+    private void consolidate() {
+        //grow buckets if the heap got bigger than the current rank bound
+        if (this.buckets.length < rankBound(this.size)) {
+            this.buckets = new HeapNode[rankBound(this.size)];
+        }
+        HeapNode[] buckets = this.buckets;
+        int maxRank = 0;
+
+        //Successive Linking
+        HeapNode curr = this.head;
+        while (curr != null) {
+            HeapNode nextTree = curr.getNext();
+            curr.setPrev(null);
+            int currRank = curr.getRank();
+
+            //if the i place in the array is not null - link the trees. smaller key is the root.
+            while (buckets[currRank] != null) {
+                HeapNode parent;
+                HeapNode child;
+                if (buckets[currRank].getKey() < curr.getKey()) {
+                    parent = buckets[currRank];
+                    child = curr;
+                } else {
+                    parent = curr;
+                    child = buckets[currRank];
+                }
+                //update nodes fields - parent and child pointers, rank and isRoot flag
+                parent.setIsRoot(true);
+                child.setIsRoot(false);
+                child.setNext(parent.getChild());
+                if (parent.getChild() != null) {
+                    parent.getChild().setPrev(child);
+                }
+                child.setParent(parent);
+                parent.setChild(child);
+
+                parent.setRank(parent.getRank() + 1);
+
+                //update array
+                curr = parent;
+                buckets[currRank] = null;
+                currRank = parent.getRank();
+            }
+            buckets[currRank] = curr;
+            if (currRank > maxRank) {
+                maxRank = currRank;
+            }
+            curr = nextTree;
+
+        }
+
+        //build the new linked list, find the new min and count the trees, and empty the buckets
+        HeapNode currTree = null;
+        HeapNode nextTree;
+        HeapNode currMin = null;
+        int trees = 0;
+
+        for (int i = 0; i <= maxRank; i++) {
+            if (buckets[i] != null) {
+                if (currTree == null) {
+                    currTree = buckets[i];
+                    this.head = currTree;
+                    currTree.setPrev(null);
+                    currTree.setParent(null);
+                    currMin = currTree;
+                } else {
+                    nextTree = buckets[i];
+                    nextTree.setParent(null);
+                    currTree.setNext(nextTree);
+                    nextTree.setPrev(currTree);
+                    currTree = nextTree;
+                    if (currTree.getKey() < currMin.getKey()) { //update current minimum if key is smaller
+                        currMin = currTree;
+                    }
+                }
+                trees++;
+                buckets[i] = null;
+            }
+        }
+        this.tail = currTree;
+        currTree.setNext(null);
+        this.min = currMin;
+        this.treeCount = trees;
+    }
+
+    /**
+     * private static int rankBound(int n)
+     *
+     * Returns a number of buckets that is larger than the maximal rank of a tree in a heap of n nodes.
+     * A tree of rank r has at least F(r+2) >= phi^r nodes, so the rank is at most log_phi(n) ~ 1.44*log2(n).
+     * The bound is computed with integer operations: 1.5*(floor(log2(n))+1) + 1.
+     *
+     * complexity : O(1)
+     */
+    private static int rankBound(int n) {
+        int bits = 32 - Integer.numberOfLeadingZeros(n);  //floor(log2(n)) + 1
+        return bits + (bits >> 1) + 1;
+    }
+
+    /**
+    * public HeapNode findMin()
+    *
+    * Returns the node of the heap whose key is minimal, or null if the heap is empty.
+    *
+     * complexity : O(1)
+    */
+    public HeapNode findMin() {
+    	return this.min;
+    }
+
+    /**
+     * public HeapNode getHead()
+     *
+     * return the head of linked list
+     *
+     * complexity : O(1)
+     */
+    public HeapNode getHead() {
+        return this.head;
+    }
+
+    /**
+     * public HeapNode getTail()
+     *
+     * return the tail of linked list
+     *
+     * complexity : O(1)
+     */
+    public HeapNode getTail() {
+        return this.tail;
+    }
+
+    /**
+     * public int getTreeCount()
+     *
+     * return the number of trees in the heap
+     *
+     * complexity : O(1)
+     */
+    public int getTreeCount() {
+        return this.treeCount;
+    }
+
+    /**
+     * public int getMarkedCount()
+     *
+     * return the number of marked nodes
+     *
+     * complexity : O(1)
+     */
+    public int getMarkedCount() {
+        return this.markedCount;
+    }
+
+    /**
+    * public void meld (LongFibonacciHeap heap2)
+    *
+    * Melds heap2 with the current heap. heap2 is empty afterwards.
+    *
+    * complexity : O(1)
+    */
+    public void meld (LongFibonacciHeap heap2) {
+        if (heap2 == this) {
+            throw new IllegalArgumentException("a heap cannot be melded with itself");
+        }
+        if (heap2.isEmpty()) {
+            return;
+        }
+        if (this.isEmpty()) {
+            this.head = heap2.getHead();
+            this.min = heap2.findMin();
+        } else {
+            //link the tail of the current list to the head of heap2
+            this.tail.setNext(heap2.getHead());
+            heap2.getHead().setPrev(this.tail);
+
+            //update min to be heap2 min if key is smaller
+            if (heap2.findMin().getKey() < this.min.getKey()) {
+                this.min = heap2.findMin();
+            }
+        }
+        this.tail = heap2.getTail();  //update heap tail to heap2 tail
+        this.size += heap2.size();  //update heap size
+        this.treeCount += heap2.getTreeCount();  //update heap tree count
+        this.markedCount += heap2.getMarkedCount();  //update heap marked nodes count
+
+        //heap2 gave its nodes away
+        heap2.head = null;
+        heap2.tail = null;
+        heap2.min = null;
+        heap2.size = 0;
+        heap2.treeCount = 0;
+        heap2.markedCount = 0;
+    }
+
+
+    /**
+    * public int size()
+    *
+    * Returns the number of elements in the heap.
+    *
+    * complexity : O(1)
+    */
+    public int size() {
+    	return this.size;
+    }
+    	
+    /**
+    * public int[] countersRep()
+    *
+    * Return an array of counters. The i-th entry contains the number of trees of order i in the heap.
+    * Note: The size of of the array depends on the maximum order of a tree, and an empty heap returns an empty array.
+    *
+     * complexity : O(n)
+    */
+    public int[] countersRep() {
+    	//if the heap is empty return empty array
+        if (this.isEmpty()) {
+    	    return new int[0];
+        }
+        //find the maximum rank in the heap
+        int maxRank = 0;
+        HeapNode curr = this.head;
+        while (curr != null) {
+            if (curr.getRank() > maxRank) {
+                maxRank = curr.getRank();
+            }
+            curr = curr.getNext();
+        }
+        //build the counter - iterate throw heap trees and increment i index of array if current tree rank is i
+        int[] counterRep = new int[maxRank+1];
+        curr = this.head;
+        while (curr != null) {
+            int currRank = curr.getRank();
+            counterRep[currRank]++;
+            curr = curr.getNext();
+        }
+        return counterRep;
+    }
+	
+   /**
+    * public void delete(HeapNode x)
+    *
+    * Deletes the node x from the heap.
+	* It is assumed that x indeed belongs to the heap.
+    * x is cut from its parent (with cascading cuts) and its children become roots in its place. The key
+    * of x is never changed, so there is no overflow for large keys. Only when x is the min the heap is
+    * consolidated (as deleteMin), otherwise the new roots are left for the next deleteMin.
+    *
+    * complexity : O(log n) amortized, O(n) when x is the min
+    */
+    public void delete(HeapNode x) {
+        if (x != null) {
+            if (x == this.min) {
+                this.deleteMin();
+                return;
+            }
+            //the children of x are not smaller than the min, so min stays
+            if (!x.getIsRoot()) {
+                this.cascadingCuts(x, x.getParent());
+            }
+            this.treeCount += x.getRank() - 1;
+            this.removeRoot(x);
+            x.setRank(0);
+            this.size--;
+        }
+    }
+
+   /**
+    * public void decreaseKey(HeapNode x, long delta)
+    *
+    * Decreases the key of the node x by a non-negative value delta. The structure of the heap should be updated
+    * to reflect this change (for example, the cascading cuts procedure should be applied if needed).
+    *
+    * complexity : O(log n)
+    */
+    public void decreaseKey(HeapNode x, long delta) {
+        if (x != null) {
+            x.setKey(x.getKey() - delta);  //decrease x key by delta
+            //if the heap is illegal - use cascading cuts
+            if (!x.getIsRoot() && x.getParent().getKey() > x.getKey()) {
+                this.cascadingCuts(x, x.getParent());
+            } else {
+                if (x.getIsRoot() && x.getKey() < this.min.getKey()) {
+                    this.min = x;
+                }
+            }
+        }
+    }
+
+    /**
+     * private void cascadingCuts(HeapNode x, HeapNode y)
+     *
+     * if child is smaller than parent- cut child from tree
+     * if parent is not a root and is not marked - mark it. else - cut the parent too, and go on
+     * with its own parent, until reaching a root or an unmarked node
+     * a loop and not a recursion, so a long path of marked nodes does not overflow the stack
+     * @pre: x != null && y != null
+     *
+     * complexity : O(log n) amortized, O(number of marked ancestors) worst case
+     */
+    private void cascadingCuts(HeapNode x, HeapNode y) {
+        while (true) {
+            this.cut(x,y);  //cut x from its parent y
+
+            if (y.getIsRoot()) {  //a root is never marked - stop
+                return;
+            }
+            //if y is not marked - mark it and stop
+            if (y.getMarked() == false) {
+                y.setMarked(true);
+                this.markedCount++;
+                return;
+            }
+            //if y is already marked - cut it from its parent as well
+            x = y;
+            y = y.getParent();
+        }
+    }
+
+    /**
+     * private void cut(HeapNode x, HeapNode y)
+     *
+     * cut x from y
+     * @pre: x != null && y != null
+     *
+     * complexity : O(1)
+     */
+    private void cut(HeapNode x, HeapNode y) {
+        //x becomes a root - update fields accordingly
+        this.treeCount++;  //update treeCount
+        if (x.getMarked()) {  //if x was marked - turn it off and update markedCount of the heap
+            x.setMarked(false);
+            this.markedCount--;
+        }
+        x.setIsRoot(true);
+        x.setParent(null);
+
+        //update min if x key is smaller than min key
+        if (x.getKey() < this.min.getKey()) {
+            this.min = x;
+        }
+
+        //update y child pointer and x brothers pointers
+        if (y.getRank() == 1) {
+            y.setChild(null);
+        } else {  //y child points to x
+            if (y.getChild() == x) {
+                y.setChild(x.getNext());
+                x.getNext().setPrev(null);
+            }
+            else {
+                x.getPrev().setNext(x.getNext());
+                if (x.hasNext()) {
+                    x.getNext().setPrev(x.getPrev());
+                }
+            }
+        }
+        y.setRank(y.getRank()-1);  //update y rank
+        //update x pointer
+        x.setNext(this.head);
+        this.head.setPrev(x);
+        x.setPrev(null);
+
+        this.head = x;
+    }
+
+
+    /**
+    * public int potential() 
+    *
+    * This function returns the current potential of the heap, which is:
+    * Potential = #trees + 2*#marked
+    * 
+    * In words: The potential equals to the number of trees in the heap
+    * plus twice the number of marked nodes in the heap.
+     *
+     * complexity : O(1)
+    */
+    public int potential() {
+    	return this.treeCount + 2 * this.markedCount;
+    }
+
+   /**
+    * public class HeapNode
+    *
+    * A node of the heap, holding a long key.
+    */
+    public static class HeapNode{
+
+    	public long key;
+    	private int rank = 0;
+    	private boolean mark = false;
+    	private HeapNode child = null;
+    	private HeapNode next = null;
+    	private HeapNode prev = null;
+    	private HeapNode parent = null;
+    	private boolean isRoot = false;
+
+    	public HeapNode(long key) {
+    	    this.key = key;
+    	}
+
+       /**
+        * return node key
+        * complexity : O(1)
+        */
+    	public long getKey() {
+    		return this.key;
+    	}
+
+       /**
+        * update node key to x
+        * complexity : O(1)
+        */
+    	public void setKey(long x) {
+    	    this.key = x;
+        }
+
+       /**
+        * return node rank
+        * complexity : O(1)
+        */
+       public int getRank() {
+           return this.rank;
+       }
+
+       /**
+        * update node rank to r
+        * complexity : O(1)
+        */
+       public void setRank(int r) {
+           this.rank = r;
+       }
+
+       /**
+        * return node mark
+        * complexity : O(1)
+        */
+       public boolean getMarked() {
+           return this.mark;
+       }
+
+       /**
+        * update node mark to b
+        * complexity : O(1)
+        */
+       public void setMarked(boolean b) {
+           this.mark = b;
+       }
+
+       /**
+        * return node child
+        * complexity : O(1)
+        */
+       public HeapNode getChild() {
+           return this.child;
+       }
+
+       /**
+        * update node child to x
+        * complexity : O(1)
+        */
+       public void setChild(HeapNode x) {
+           this.child = x;
+       }
+
+       /**
+        * return node next (right brother)
+        * complexity : O(1)
+        */
+       public HeapNode getNext() {
+           return this.next;
+       }
+
+       /**
+        * update node next (right brother)
+        * complexity : O(1)
+        */
+       public void setNext(HeapNode x) {
+           this.next = x;
+       }
+
+       /**
+        * return true if next != null
+        * complexity : O(1)
+        */
+       public boolean hasNext() {
+           return this.next != null;
+       }
+
+       /**
+        * return node prev (left brother)
+        * complexity : O(1)
+        */
+       public HeapNode getPrev() {
+           return this.prev;
+       }
+
+       /**
+        * update node prev (left brother)
+        * complexity : O(1)
+        */
+       public void setPrev(HeapNode x) {
+           this.prev = x;
+       }
+
+       /**
+        * return node parent
+        * complexity : O(1)
+        */
+       public HeapNode getParent() {
+           return this.parent;
+       }
+
+       /**
+        * update node parent to p
+        * complexity : O(1)
+        */
+       public void setParent(HeapNode p) {
+           this.parent = p;
+       }
+
+       /**
+        * return node isRoot
+        * complexity : O(1)
+        */
+       public boolean getIsRoot() {
+           return this.isRoot;
+       }
+
+       /**
+        * update node isRoot to b
+        * complexity : O(1)
+        */
+       public void setIsRoot(boolean b) {
+           this.isRoot = b;
+       }
+
+   }
+}
@@ -0,0 +1,116 @@
+/**
+ * MarkedChain
+ *
+ * Builds, in an empty heap and through the public api only, a single tree with a path of depth
+ * marked nodes - the worst case of cascadingCuts. Every round links the tree under a new root, cuts
+ * a leaf of the old root so it becomes marked, and deletes the nodes the path does not need.
+ * Used by the deep chain benchmark and by the tests of long cascades.
+ */
+public class MarkedChain {
+
+   /**
+    * public static FibonacciHeap.HeapNode[] build(FibonacciHeap heap, int depth)
+    *
+    * Builds the path in heap, which must be empty, and returns the two nodes at its bottom :
+    * a leaf, then its unmarked parent.
+    *
+    * complexity : O(depth)
+    */
+    public static FibonacciHeap.HeapNode[] build(FibonacciHeap heap, int depth) {
+        int key = 8 * depth + 16;
+        FibonacciHeap.HeapNode root = insertRound(heap, key);  //root -> [p -> q, leaf]
+        FibonacciHeap.HeapNode pair = childOfRank(root, 1, null);
+        FibonacciHeap.HeapNode[] bottom = {pair.getChild(), pair};
+        FibonacciHeap.HeapNode leaf = childOfRank(root, 0, null);
+
+        for (int i = 0; i < depth; i++) {
+            key -= 8;
+            //one tree of rank 3 : newRoot -> [root, p -> q, leaf]
+            FibonacciHeap.HeapNode newRoot = insertRound(heap, key);
+            heap.decreaseKey(leaf, leaf.getKey() + 1);  //marks root
+            pair = childOfRank(newRoot, 1, root);
+            leaf = childOfRank(newRoot, 0, null);
+            FibonacciHeap.HeapNode single = pair.getChild();
+            heap.decreaseKey(single, single.getKey() + 2);
+            heap.decreaseKey(pair, pair.getKey() + 3);
+            for (int j = 0; j < 3; j++) {
+                heap.deleteMin();
+            }
+            root = newRoot;
+        }
+        return bottom;
+    }
+
+   /**
+    * public static LongFibonacciHeap.HeapNode[] build(LongFibonacciHeap heap, int depth)
+    *
+    * build for a LongFibonacciHeap.
+    *
+    * complexity : O(depth)
+    */
+    public static LongFibonacciHeap.HeapNode[] build(LongFibonacciHeap heap, int depth) {
+        long key = 8L * depth + 16;
+        LongFibonacciHeap.HeapNode root = insertRound(heap, key);  //root -> [p -> q, leaf]
+        LongFibonacciHeap.HeapNode pair = childOfRank(root, 1, null);
+        LongFibonacciHeap.HeapNode[] bottom = {pair.getChild(), pair};
+        LongFibonacciHeap.HeapNode leaf = childOfRank(root, 0, null);
+
+        for (int i = 0; i < depth; i++) {
+            key -= 8;
+            //one tree of rank 3 : newRoot -> [root, p -> q, leaf]
+            LongFibonacciHeap.HeapNode newRoot = insertRound(heap, key);
+            heap.decreaseKey(leaf, leaf.getKey() + 1);  //marks root
+            pair = childOfRank(newRoot, 1, root);
+            leaf = childOfRank(newRoot, 0, null);
+            LongFibonacciHeap.HeapNode single = pair.getChild();
+            heap.decreaseKey(single, single.getKey() + 2);
+            heap.decreaseKey(pair, pair.getKey() + 3);
+            for (int j = 0; j < 3; j++) {
+                heap.deleteMin();
+            }
+            root = newRoot;
+        }
+        return bottom;
+    }
+
+    //inserts key .. key + 3, and consolidates them into one tree of rank 2 rooted at key
+    private static FibonacciHeap.HeapNode insertRound(FibonacciHeap heap, int key) {
+        FibonacciHeap.HeapNode first = heap.insert(key);
+        for (int i = 1; i < 4; i++) {
+            heap.insert(key + i);
+        }
+        heap.insert(-10);
+        heap.deleteMin();
+        return first;
+    }
+
+    private static LongFibonacciHeap.HeapNode insertRound(LongFibonacciHeap heap, long key) {
+        LongFibonacciHeap.HeapNode first = heap.insert(key);
+        for (int i = 1; i < 4; i++) {
+            heap.insert(key + i);
+        }
+        heap.insert(-10);
+        heap.deleteMin();
+        return first;
+    }
+
+    private static FibonacciHeap.HeapNode childOfRank(FibonacciHeap.HeapNode parent, int rank,
+                                                      FibonacciHeap.HeapNode skip) {
+        for (FibonacciHeap.HeapNode child = parent.getChild(); child != null; child = child.getNext()) {
+            if (child.getRank() == rank && child != skip) {
+                return child;
+            }
+        }
+        throw new IllegalStateException("unexpected tree shape");
+    }
+
+    private static LongFibonacciHeap.HeapNode childOfRank(LongFibonacciHeap.HeapNode parent, int rank,
+                                                          LongFibonacciHeap.HeapNode skip) {
+        for (LongFibonacciHeap.HeapNode child = parent.getChild(); child != null; child = child.getNext()) {
+            if (child.getRank() == rank && child != skip) {
+                return child;
+            }
+        }
+        throw new IllegalStateException("unexpected tree shape");
+    }
+}
@@ -0,0 +1,679 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * OffHeapFibonacciHeap
+ *
+ * An implementation of a Fibonacci Heap over integers whose nodes live outside the Java heap,
+ * in direct ByteBuffers or in a memory-mapped file, so the garbage collector never scans them.
+ * Every node is a fixed size record:
+ *
+ *   0  key     int
+ *   4  rank    short
+ *   6  mark    byte
+ *   8  parent  long
+ *  16  child   long
+ *  24  next    long
+ *  32  prev    long
+ *
+ * A node is identified by a long handle - the offset of its record. The links are handles as well,
+ * with NONE standing for null. The records are stored in chunks of CHUNK_RECORDS records, since a
+ * single buffer is limited to 2GB. Slots of deleted nodes are reused through a free list threaded
+ * over the next field.
+ * A handle is valid from the insert which returned it until its node is deleted.
+ */
+public class OffHeapFibonacciHeap implements Closeable {
+    public static final long NONE = -1L;
+
+    private static final int KEY = 0;
+    private static final int RANK = 4;
+    private static final int MARK = 6;
+    private static final int PARENT = 8;
+    private static final int CHILD = 16;
+    private static final int NEXT = 24;
+    private static final int PREV = 32;
+    static final int RECORD_SIZE = 40;
+    private static final int CHUNK_RECORDS = 1 << 18;
+    private static final long CHUNK_BYTES = (long) CHUNK_RECORDS * RECORD_SIZE;
+
+    private final FileChannel channel;  //null if the chunks are direct buffers
+    private ByteBuffer[] chunks = new ByteBuffer[0];
+    private long used = 0;  //bytes of records ever handed out
+    private long free = NONE;  //first slot of the free list
+
+    private long head = NONE;
+    private long tail = NONE;
+    private long min = NONE;
+    private int size = 0;
+    private int treeCount = 0;
+    private int markedCount = 0;
+    private long[] buckets = new long[0];  //reusable consolidate buckets
+
+    /**
+     * creates a heap stored in direct buffers.
+     */
+    public OffHeapFibonacciHeap() {
+        this.channel = null;
+    }
+
+    /**
+     * creates a heap stored in the given file, which is created (or truncated) and mapped into memory
+     * chunk by chunk as the heap grows.
+     */
+    public OffHeapFibonacciHeap(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+   /**
+    * public boolean isEmpty()
+    *
+    * Returns true if and only if the heap is empty.
+    *
+    * complexity : O(1)
+    */
+    public boolean isEmpty() {
+        return this.head == NONE;
+    }
+
+   /**
+    * public void clear()
+    *
+    * Empties the heap and keeps its chunks, so the next inserts reuse the records from the first one.
+    * Every handle becomes invalid.
+    *
+    * complexity : O(1)
+    */
+    public void clear() {
+        this.used = 0;
+        this.free = NONE;
+        this.head = NONE;
+        this.tail = NONE;
+        this.min = NONE;
+        this.size = 0;
+        this.treeCount = 0;
+        this.markedCount = 0;
+    }
+
+   /**
+    * public long insert(int key)
+    *
+    * Creates a node which contains the given key, and inserts it into the heap.
+    *
+    * Returns the handle of the new node.
+    *
+    * complexity : O(1) amortized
+    */
+    public long insert(int key) {
+        long x = this.allocate();
+        ByteBuffer chunk = this.chunk(x);
+        int pos = pos(x);
+        chunk.putInt(pos + KEY, key);
+        chunk.putShort(pos + RANK, (short) 0);
+        chunk.put(pos + MARK, (byte) 0);
+        chunk.putLong(pos + PARENT, NONE);
+        chunk.putLong(pos + CHILD, NONE);
+
+        //insert node to head of linked roots list
+        chunk.putLong(pos + PREV, NONE);
+        chunk.putLong(pos + NEXT, this.head);
+        if (this.head != NONE) {
+            this.setPrev(this.head, x);
+        } else {
+            this.tail = x;
+        }
+        this.head = x;
+
+        this.size++;
+        this.treeCount++;
+
+        //update min if necessary
+        if (this.min == NONE || key < this.getKey(this.min)) {
+            this.min = x;
+        }
+        return x;
+    }
+
+   /**
+    * public void deleteMin()
+    *
+    * Deletes the node containing the minimum key. Its handle becomes invalid.
+    *
+    * complexity : O(n)
+    */
+    public void deleteMin() {
+        if (this.min == NONE) {
+            return;
+        }
+        long z = this.min;
+        long prev = this.getPrev(z);
+        long next = this.getNext(z);
+        long child = this.getChild(z);
+
+        if (child != NONE) {
+            //update min children to be independent trees, and put them in place of min
+            long last = child;
+            for (long x = child; x != NONE; x = this.getNext(x)) {
+                this.setParent(x, NONE);
+                if (this.getMarked(x)) {
+                    this.setMarked(x, false);
+                    this.markedCount--;
+                }
+                last = x;
+            }
+            this.setPrev(child, prev);
+            if (prev != NONE) {
+                this.setNext(prev, child);
+            } else {
+                this.head = child;
+            }
+            this.setNext(last, next);
+            if (next != NONE) {
+                this.setPrev(next, last);
+            } else {
+                this.tail = last;
+            }
+        } else {  //if min has no children - connect its left and right brothers
+            if (prev != NONE) {
+                this.setNext(prev, next);
+            } else {
+                this.head = next;
+            }
+            if (next != NONE) {
+                this.setPrev(next, prev);
+            } else {
+                this.tail = prev;
+            }
+        }
+
+        this.release(z);
+        this.size--;
+
+        //consolidate heap - also updates heap tree count and min
+        if (this.isEmpty()) {
+            this.min = NONE;
+            this.treeCount = 0;
+        } else {
+            this.consolidate();
+        }
+    }
+
+    /**
+     * private void consolidate()
+     *
+     * Successive Linking process on heap after deleteMin, which also finds the new min and tree count.
+     * pre : heap is not empty
+     *
+     * complexity : O(n)
+     */
+    private void consolidate() {
+        if (this.buckets.length < rankBound(this.size)) {
+            this.buckets = new long[rankBound(this.size)];
+            Arrays.fill(this.buckets, NONE);
+        }
+        long[] buckets = this.buckets;
+        int maxRank = 0;
+
+        //Successive Linking
+        long curr = this.head;
+        while (curr != NONE) {
+            long nextTree = this.getNext(curr);
+            this.setPrev(curr, NONE);
+            int currRank = this.getRank(curr);
+
+            //if the i place in the array is not empty - link the trees. smaller key is the root.
+            while (buckets[currRank] != NONE) {
+                long other = buckets[currRank];
+                if (this.getKey(other) < this.getKey(curr)) {
+                    this.link(curr, other);
+                    curr = other;
+                } else {
+                    this.link(other, curr);
+                }
+                buckets[currRank] = NONE;
+                currRank = this.getRank(curr);
+            }
+            buckets[currRank] = curr;
+            if (currRank > maxRank) {
+                maxRank = currRank;
+            }
+            curr = nextTree;
+        }
+
+        //build the new linked list, find the new min and count the trees, and empty the buckets
+        long currTree = NONE;
+        long currMin = NONE;
+        int minKey = 0;
+        int trees = 0;
+        for (int i = 0; i <= maxRank; i++) {
+            long tree = buckets[i];
+            if (tree != NONE) {
+                int key = this.getKey(tree);
+                if (currTree == NONE) {
+                    this.head = tree;
+                    currMin = tree;
+                    minKey = key;
+                } else {
+                    this.setNext(currTree, tree);
+                    if (key < minKey) {
+                        currMin = tree;
+                        minKey = key;
+                    }
+                }
+                this.setPrev(tree, currTree);
+                currTree = tree;
+                trees++;
+                buckets[i] = NONE;
+            }
+        }
+        this.tail = currTree;
+        this.setNext(currTree, NONE);
+        this.min = currMin;
+        this.treeCount = trees;
+    }
+
+    /**
+     * private void link(long child, long parent)
+     *
+     * hangs the tree rooted at child under parent.
+     *
+     * complexity : O(1)
+     */
+    private void link(long child, long parent) {
+        long firstChild = this.getChild(parent);
+        this.setParent(child, parent);
+        this.setPrev(child, NONE);
+        this.setNext(child, firstChild);
+        if (firstChild != NONE) {
+            this.setPrev(firstChild, child);
+        }
+        this.setChild(parent, child);
+        this.setRank(parent, this.getRank(parent) + 1);
+    }
+
+   /**
+    * public long findMin()
+    *
+    * Returns the handle of the node whose key is minimal, or NONE if the heap is empty.
+    *
+    * complexity : O(1)
+    */
+    public long findMin() {
+        return this.min;
+    }
+
+   /**
+    * public int size()
+    *
+    * Returns the number of elements in the heap.
+    *
+    * complexity : O(1)
+    */
+    public int size() {
+        return this.size;
+    }
+
+   /**
+    * public int getTreeCount()
+    *
+    * return the number of trees in the heap
+    *
+    * complexity : O(1)
+    */
+    public int getTreeCount() {
+        return this.treeCount;
+    }
+
+   /**
+    * public int getMarkedCount()
+    *
+    * return the number of marked nodes
+    *
+    * complexity : O(1)
+    */
+    public int getMarkedCount() {
+        return this.markedCount;
+    }
+
+   /**
+    * public int potential()
+    *
+    * Potential = #trees + 2*#marked
+    *
+    * complexity : O(1)
+    */
+    public int potential() {
+        return this.treeCount + 2 * this.markedCount;
+    }
+
+   /**
+    * public void decreaseKey(long x, int delta)
+    *
+    * Decreases the key of the node with handle x by a non-negative value delta.
+    *
+    * complexity : O(log n) amortized O(1)
+    */
+    public void decreaseKey(long x, int delta) {
+        int key = this.getKey(x) - delta;
+        this.setKey(x, key);
+        long parent = this.getParent(x);
+        if (parent != NONE && this.getKey(parent) > key) {
+            this.cascadingCuts(x, parent);
+        } else if (parent == NONE && key < this.getKey(this.min)) {
+            this.min = x;
+        }
+    }
+
+   /**
+    * public void delete(long x)
+    *
+    * Deletes the node with handle x from the heap. The handle becomes invalid.
+    * x is cut to the root list and deleted as the min, without changing its key.
+    *
+    * complexity : O(n)
+    */
+    public void delete(long x) {
+        long parent = this.getParent(x);
+        if (parent != NONE) {
+            this.cascadingCuts(x, parent);
+        }
+        this.min = x;
+        this.deleteMin();
+    }
+
+    /**
+     * private void cascadingCuts(long x, long y)
+     *
+     * cut x from its parent y, then go up cutting marked parents until reaching an unmarked node
+     * (which is marked) or a root.
+     *
+     * complexity : O(log n)
+     */
+    private void cascadingCuts(long x, long y) {
+        while (true) {
+            this.cut(x, y);
+            long parent = this.getParent(y);
+            if (parent == NONE) {
+                return;
+            }
+            if (!this.getMarked(y)) {
+                this.setMarked(y, true);
+                this.markedCount++;
+                return;
+            }
+            x = y;
+            y = parent;
+        }
+    }
+
+    /**
+     * private void cut(long x, long y)
+     *
+     * cut x from its parent y and make it a root
+     *
+     * complexity : O(1)
+     */
+    private void cut(long x, long y) {
+        //remove x from the children list of y
+        long prev = this.getPrev(x);
+        long next = this.getNext(x);
+        if (prev != NONE) {
+            this.setNext(prev, next);
+        } else {
+            this.setChild(y, next);
+        }
+        if (next != NONE) {
+            this.setPrev(next, prev);
+        }
+        this.setRank(y, this.getRank(y) - 1);
+
+        //x becomes a root
+        this.setParent(x, NONE);
+        if (this.getMarked(x)) {
+            this.setMarked(x, false);
+            this.markedCount--;
+        }
+        this.setPrev(x, NONE);
+        this.setNext(x, this.head);
+        this.setPrev(this.head, x);
+        this.head = x;
+        this.treeCount++;
+
+        if (this.getKey(x) < this.getKey(this.min)) {
+            this.min = x;
+        }
+    }
+
+   /**
+    * public long meld(OffHeapFibonacciHeap heap2)
+    *
+    * Moves all the nodes of heap2 into the current heap, and empties heap2.
+    * The records are copied behind the records of this heap, so a handle h of heap2 becomes
+    * h + offset, where offset is the returned value. Melding a heap with itself throws
+    * IllegalArgumentException.
+    *
+    * complexity : O(capacity used by heap2)
+    */
+    public long meld(OffHeapFibonacciHeap heap2) {
+        if (heap2 == this) {
+            throw new IllegalArgumentException("a heap cannot be melded with itself");
+        }
+        long offset = this.used;
+        for (long x = 0; x < heap2.used; x += RECORD_SIZE) {
+            long y = this.allocateAtEnd();
+            this.setKey(y, heap2.getKey(x));
+            this.setRank(y, heap2.getRank(x));
+            this.setMarked(y, heap2.getMarked(x));
+            this.setParent(y, shift(heap2.getParent(x), offset));
+            this.setChild(y, shift(heap2.getChild(x), offset));
+            this.setNext(y, shift(heap2.getNext(x), offset));
+            this.setPrev(y, shift(heap2.getPrev(x), offset));
+        }
+
+        //move the free slots of heap2 to the free list of this heap
+        for (long f = heap2.free; f != NONE; f = heap2.getNext(f)) {
+            this.setNext(f + offset, this.free);
+            this.free = f + offset;
+        }
+
+        //link the root list of heap2 after the tail of the current list
+        if (!heap2.isEmpty()) {
+            long head2 = heap2.head + offset;
+            if (this.isEmpty()) {
+                this.head = head2;
+                this.min = heap2.min + offset;
+            } else {
+                this.setNext(this.tail, head2);
+                this.setPrev(head2, this.tail);
+                if (heap2.getKey(heap2.min) < this.getKey(this.min)) {
+                    this.min = heap2.min + offset;
+                }
+            }
+            this.tail = heap2.tail + offset;
+        }
+        this.size += heap2.size;
+        this.treeCount += heap2.treeCount;
+        this.markedCount += heap2.markedCount;
+
+        heap2.clear();
+        return offset;
+    }
+
+   /**
+    * public int[] countersRep()
+    *
+    * Return an array of counters. The i-th entry contains the number of trees of order i in the heap.
+    *
+    * complexity : O(n)
+    */
+    public int[] countersRep() {
+        int maxRank = -1;
+        for (long x = this.head; x != NONE; x = this.getNext(x)) {
+            maxRank = Math.max(maxRank, this.getRank(x));
+        }
+        int[] counterRep = new int[maxRank + 1];
+        for (long x = this.head; x != NONE; x = this.getNext(x)) {
+            counterRep[this.getRank(x)]++;
+        }
+        return counterRep;
+    }
+
+    /**
+     * public void close()
+     *
+     * closes the mapped file, if the heap is stored in one. Direct buffers are released with the heap.
+     */
+    public void close() throws IOException {
+        if (this.channel != null) {
+            this.channel.close();
+        }
+    }
+
+   /**
+    * public int getKey(long x)
+    *
+    * Returns the key of the node with handle x.
+    *
+    * complexity : O(1)
+    */
+    public int getKey(long x) {
+        return this.chunk(x).getInt(pos(x) + KEY);
+    }
+
+    private void setKey(long x, int key) {
+        this.chunk(x).putInt(pos(x) + KEY, key);
+    }
+
+    private int getRank(long x) {
+        return this.chunk(x).getShort(pos(x) + RANK);
+    }
+
+    private void setRank(long x, int rank) {
+        this.chunk(x).putShort(pos(x) + RANK, (short) rank);
+    }
+
+    private boolean getMarked(long x) {
+        return this.chunk(x).get(pos(x) + MARK) != 0;
+    }
+
+    private void setMarked(long x, boolean b) {
+        this.chunk(x).put(pos(x) + MARK, (byte) (b ? 1 : 0));
+    }
+
+    private long getParent(long x) {
+        return this.chunk(x).getLong(pos(x) + PARENT);
+    }
+
+    private void setParent(long x, long p) {
+        this.chunk(x).putLong(pos(x) + PARENT, p);
+    }
+
+    private long getChild(long x) {
+        return this.chunk(x).getLong(pos(x) + CHILD);
+    }
+
+    private void setChild(long x, long c) {
+        this.chunk(x).putLong(pos(x) + CHILD, c);
+    }
+
+    private long getNext(long x) {
+        return this.chunk(x).getLong(pos(x) + NEXT);
+    }
+
+    private void setNext(long x, long n) {
+        this.chunk(x).putLong(pos(x) + NEXT, n);
+    }
+
+    private long getPrev(long x) {
+        return this.chunk(x).getLong(pos(x) + PREV);
+    }
+
+    private void setPrev(long x, long p) {
+        this.chunk(x).putLong(pos(x) + PREV, p);
+    }
+
+    private ByteBuffer chunk(long x) {
+        return this.chunks[(int) (x / CHUNK_BYTES)];
+    }
+
+    private static int pos(long x) {
+        return (int) (x % CHUNK_BYTES);
+    }
+
+    /**
+     * private long allocate()
+     *
+     * returns a free record, from the free list if possible.
+     *
+     * complexity : O(1) amortized
+     */
+    private long allocate() {
+        if (this.free != NONE) {
+            long x = this.free;
+            this.free = this.getNext(x);
+            return x;
+        }
+        return this.allocateAtEnd();
+    }
+
+    /**
+     * private long allocateAtEnd()
+     *
+     * returns the record after the last used one, adding a chunk if needed.
+     *
+     * complexity : O(1) amortized
+     */
+    private long allocateAtEnd() {
+        if (this.used == (long) this.chunks.length * CHUNK_BYTES) {
+            this.addChunk();
+        }
+        long x = this.used;
+        this.used += RECORD_SIZE;
+        return x;
+    }
+
+    private void release(long x) {
+        this.setNext(x, this.free);
+        this.free = x;
+    }
+
+    private void addChunk() {
+        ByteBuffer chunk;
+        if (this.channel == null) {
+            chunk = ByteBuffer.allocateDirect((int) CHUNK_BYTES);
+        } else {
+            try {
+                chunk = this.channel.map(FileChannel.MapMode.READ_WRITE, this.chunks.length * CHUNK_BYTES, CHUNK_BYTES);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        chunk.order(ByteOrder.nativeOrder());
+        this.chunks = Arrays.copyOf(this.chunks, this.chunks.length + 1);
+        this.chunks[this.chunks.length - 1] = chunk;
+    }
+
+    private static long shift(long x, long offset) {
+        return x == NONE ? NONE : x + offset;
+    }
+
+    /**
+     * private static int rankBound(int n)
+     *
+     * Returns a number of buckets that is larger than the maximal rank of a tree in a heap of n nodes
+     * (see FibonacciHeap.rankBound).
+     *
+     * complexity : O(1)
+     */
+    private static int rankBound(int n) {
+        int bits = 32 - Integer.numberOfLeadingZeros(n);
+        return bits + (bits >> 1) + 1;
+    }
+}
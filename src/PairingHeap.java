@@ -0,0 +1,247 @@
+/**
+ * PairingHeap
+ *
+ * A pairing heap over integers : a single heap ordered tree, kept as a list of children per node.
+ * insert and decreaseKey link a tree to the root in O(1), deleteMin combines the children of the root
+ * with two passes of pairing (left to right, then right to left).
+ * Every node points to its next sibling and to its previous sibling, or to its parent if it is the
+ * first child, so a node is cut from its tree in O(1).
+ */
+public class PairingHeap implements PriorityHeap<PairingHeap.Node> {
+    private Node root = null;
+    private int size = 0;
+
+   /**
+    * public boolean isEmpty()
+    *
+    * Returns true if and only if the heap is empty.
+    *
+    * complexity : O(1)
+    */
+    public boolean isEmpty() {
+        return this.root == null;
+    }
+
+   /**
+    * public int size()
+    *
+    * Returns the number of keys in the heap.
+    *
+    * complexity : O(1)
+    */
+    public int size() {
+        return this.size;
+    }
+
+   /**
+    * public Node insert(int key)
+    *
+    * Inserts key into the heap and returns its node.
+    *
+    * complexity : O(1)
+    */
+    public Node insert(int key) {
+        Node node = new Node(key);
+        this.root = link(this.root, node);
+        this.size++;
+        return node;
+    }
+
+   /**
+    * public Node findMin()
+    *
+    * Returns the node of the minimal key, or null if the heap is empty.
+    *
+    * complexity : O(1)
+    */
+    public Node findMin() {
+        return this.root;
+    }
+
+   /**
+    * public void deleteMin()
+    *
+    * Deletes the root, and combines its children into the new root.
+    *
+    * complexity : O(log n) amortized
+    */
+    public void deleteMin() {
+        if (this.root != null) {
+            Node oldRoot = this.root;
+            this.root = combine(oldRoot.child);
+            oldRoot.child = null;
+            this.size--;
+        }
+    }
+
+   /**
+    * public void decreaseKey(Node x, int delta)
+    *
+    * Decreases the key of x by a non-negative value delta. Unless x is the root, the subtree of x is
+    * cut from its tree and linked with the root.
+    *
+    * complexity : O(1), O(log n) amortized in theory
+    */
+    public void decreaseKey(Node x, int delta) {
+        if (x != null) {
+            x.key -= delta;
+            if (x != this.root) {
+                this.cut(x);
+                this.root = link(this.root, x);
+            }
+        }
+    }
+
+   /**
+    * public void delete(Node x)
+    *
+    * Deletes x : x is cut from its tree, and its children are combined and linked with the root.
+    * The key of x is not changed.
+    *
+    * complexity : O(log n) amortized
+    */
+    public void delete(Node x) {
+        if (x == null) {
+            return;
+        }
+        if (x == this.root) {
+            this.deleteMin();
+            return;
+        }
+        this.cut(x);
+        this.root = link(this.root, combine(x.child));
+        x.child = null;
+        this.size--;
+    }
+
+   /**
+    * public void meld(PairingHeap heap2)
+    *
+    * Melds heap2 with the current heap. heap2 is empty afterwards. Melding a heap with itself throws
+    * IllegalArgumentException.
+    *
+    * complexity : O(1)
+    */
+    public void meld(PairingHeap heap2) {
+        if (heap2 == this) {
+            throw new IllegalArgumentException("a heap cannot be melded with itself");
+        }
+        this.root = link(this.root, heap2.root);
+        this.size += heap2.size;
+        heap2.root = null;
+        heap2.size = 0;
+    }
+
+   /**
+    * private void cut(Node x)
+    *
+    * Cuts the subtree of x from its parent and siblings.
+    * @pre: x is not the root
+    *
+    * complexity : O(1)
+    */
+    private void cut(Node x) {
+        if (x.prev.child == x) {  //x is the first child
+            x.prev.child = x.next;
+        } else {
+            x.prev.next = x.next;
+        }
+        if (x.next != null) {
+            x.next.prev = x.prev;
+        }
+        x.prev = null;
+        x.next = null;
+    }
+
+   /**
+    * private static Node link(Node a, Node b)
+    *
+    * Links two trees (either may be null) - the root with the larger key becomes the first child of the other.
+    * Returns the root of the linked tree.
+    * @pre: a and b have no siblings
+    *
+    * complexity : O(1)
+    */
+    private static Node link(Node a, Node b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (b.key < a.key) {
+            Node temp = a;
+            a = b;
+            b = temp;
+        }
+        b.next = a.child;
+        if (a.child != null) {
+            a.child.prev = b;
+        }
+        b.prev = a;
+        a.child = b;
+        return a;
+    }
+
+   /**
+    * private static Node combine(Node first)
+    *
+    * Combines the list of siblings starting at first into one tree, with two passes : the siblings are
+    * linked in pairs from left to right, and the pairs are linked into one tree from right to left.
+    * The pairs are kept in a stack over the next pointers, so there is no recursion.
+    *
+    * complexity : O(#siblings)
+    */
+    private static Node combine(Node first) {
+        //first pass - link pairs, and push them on a stack
+        Node pairs = null;
+        Node x = first;
+        while (x != null) {
+            Node a = x;
+            Node b = a.next;
+            x = b == null ? null : b.next;
+            a.prev = null;
+            a.next = null;
+            if (b != null) {
+                b.prev = null;
+                b.next = null;
+                a = link(a, b);
+            }
+            a.next = pairs;
+            pairs = a;
+        }
+        if (pairs == null) {
+            return null;
+        }
+
+        //second pass - link the pairs from the last to the first
+        Node result = pairs;
+        pairs = pairs.next;
+        result.next = null;
+        while (pairs != null) {
+            Node pair = pairs;
+            pairs = pair.next;
+            pair.next = null;
+            result = link(result, pair);
+        }
+        return result;
+    }
+
+   /**
+    * public static class Node
+    */
+    public static class Node implements PriorityHeap.Node {
+        private int key;
+        private Node child = null;
+        private Node next = null;
+        private Node prev = null;  //previous sibling, or parent for the first child
+
+        public Node(int key) {
+            this.key = key;
+        }
+
+        public int getKey() {
+            return this.key;
+        }
+    }
+}
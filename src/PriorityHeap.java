@@ -0,0 +1,55 @@
+/**
+ * PriorityHeap
+ *
+ * The operations of a min heap of integers with handles, as in FibonacciHeap : insert returns the
+ * node of the new key, which is later given to decreaseKey and delete.
+ * N is the node type of the implementation. meld is left out, as it needs two heaps of the same class.
+ *
+ * Implementations : FibonacciHeap, PairingHeap, RankPairingHeap.
+ */
+public interface PriorityHeap<N extends PriorityHeap.Node> {
+
+   /**
+    * Returns true if and only if the heap is empty.
+    */
+    boolean isEmpty();
+
+   /**
+    * Returns the number of keys in the heap.
+    */
+    int size();
+
+   /**
+    * Inserts key into the heap and returns its node.
+    */
+    N insert(int key);
+
+   /**
+    * Returns the node of the minimal key, or null if the heap is empty.
+    */
+    N findMin();
+
+   /**
+    * Deletes the node of the minimal key.
+    */
+    void deleteMin();
+
+   /**
+    * Decreases the key of the node x by a non-negative value delta.
+    */
+    void decreaseKey(N x, int delta);
+
+   /**
+    * Deletes the node x, which is assumed to belong to the heap.
+    */
+    void delete(N x);
+
+   /**
+    * Node
+    *
+    * A key of a PriorityHeap, as returned by insert.
+    */
+    interface Node {
+        int getKey();
+    }
+}
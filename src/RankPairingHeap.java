@@ -0,0 +1,298 @@
+import java.util.Arrays;
+
+/**
+ * RankPairingHeap
+ *
+ * A rank-pairing heap over integers (Haeupler, Sen and Tarjan), with the type-2 rank rule and one-pass
+ * linking. The heap is a list of half ordered binary trees : the key of a node is not larger than the
+ * keys of its left subtree, and a root has no right child. The roots are kept in a circular list over
+ * their right pointers, and min points into it.
+ *
+ * insert adds a root, decreaseKey cuts the node with its left subtree to a new root and then lowers the
+ * ranks of its ancestors, deleteMin turns the right spine of the left child of the min into roots and
+ * links roots of equal rank once. No cascading cuts are needed, and the trees stay of logarithmic rank.
+ */
+public class RankPairingHeap implements PriorityHeap<RankPairingHeap.Node> {
+    private Node min = null;
+    private int size = 0;
+    private Node[] buckets = new Node[16];
+
+   /**
+    * public boolean isEmpty()
+    *
+    * Returns true if and only if the heap is empty.
+    *
+    * complexity : O(1)
+    */
+    public boolean isEmpty() {
+        return this.min == null;
+    }
+
+   /**
+    * public int size()
+    *
+    * Returns the number of keys in the heap.
+    *
+    * complexity : O(1)
+    */
+    public int size() {
+        return this.size;
+    }
+
+   /**
+    * public Node insert(int key)
+    *
+    * Inserts key into the heap as a root of rank 0 and returns its node.
+    *
+    * complexity : O(1)
+    */
+    public Node insert(int key) {
+        Node node = new Node(key);
+        this.addRoot(node);
+        this.size++;
+        return node;
+    }
+
+   /**
+    * public Node findMin()
+    *
+    * Returns the node of the minimal key, or null if the heap is empty.
+    *
+    * complexity : O(1)
+    */
+    public Node findMin() {
+        return this.min;
+    }
+
+   /**
+    * public void deleteMin()
+    *
+    * Deletes the min root. The nodes on the right spine of its left child become roots, and all the
+    * roots are linked in one pass : two roots of equal rank are linked, and the result is not linked again.
+    *
+    * complexity : O(log n) amortized
+    */
+    public void deleteMin() {
+        if (this.min == null) {
+            return;
+        }
+        Node oldMin = this.min;
+        this.size--;
+        this.min = null;
+        Node first = null;
+        Node last = null;
+        int maxRank = -1;
+
+        //the other roots, and the right spine of the left child of the old min
+        Node x = oldMin.right;
+        boolean spine = false;
+        if (x == oldMin) {
+            x = oldMin.left;
+            spine = true;
+        }
+        while (x != null) {
+            Node next = x.right;
+            if (spine) {
+                x.parent = null;
+                x.rank = rank(x.left) + 1;
+            } else if (next == oldMin) {  //the last of the other roots
+                next = oldMin.left;
+                spine = true;
+            }
+            x.right = null;
+
+            //one-pass linking
+            int r = x.rank;
+            if (r >= this.buckets.length) {
+                this.buckets = Arrays.copyOf(this.buckets, 2 * r + 2);
+            }
+            if (this.buckets[r] == null) {
+                this.buckets[r] = x;
+                if (r > maxRank) {
+                    maxRank = r;
+                }
+            } else {
+                Node linked = link(this.buckets[r], x);
+                this.buckets[r] = null;
+                //append linked to the new roots list
+                if (first == null) {
+                    first = linked;
+                } else {
+                    last.right = linked;
+                }
+                last = linked;
+                if (this.min == null || linked.key < this.min.key) {
+                    this.min = linked;
+                }
+            }
+            x = next;
+        }
+
+        //the roots left in the buckets join the new roots list
+        for (int r = 0; r <= maxRank; r++) {
+            Node root = this.buckets[r];
+            if (root != null) {
+                this.buckets[r] = null;
+                if (first == null) {
+                    first = root;
+                } else {
+                    last.right = root;
+                }
+                last = root;
+                if (this.min == null || root.key < this.min.key) {
+                    this.min = root;
+                }
+            }
+        }
+        if (last != null) {
+            last.right = first;  //close the circle
+        }
+        oldMin.left = null;
+        oldMin.right = null;
+    }
+
+   /**
+    * public void decreaseKey(Node x, int delta)
+    *
+    * Decreases the key of x by a non-negative value delta. Unless x is a root, x is cut with its left
+    * subtree to a new root, its right child takes its place, and the ranks of the ancestors are lowered.
+    *
+    * complexity : O(1) amortized
+    */
+    public void decreaseKey(Node x, int delta) {
+        if (x != null) {
+            x.key -= delta;
+            if (x.parent == null) {
+                if (x.key < this.min.key) {
+                    this.min = x;
+                }
+            } else {
+                this.cutToRoot(x);
+            }
+        }
+    }
+
+   /**
+    * public void delete(Node x)
+    *
+    * Deletes x : x is cut to a root (if it is not one), and deleted as the min. The key of x is not changed.
+    *
+    * complexity : O(log n) amortized
+    */
+    public void delete(Node x) {
+        if (x != null) {
+            if (x.parent != null) {
+                this.cutToRoot(x);
+            }
+            this.min = x;  //deleteMin finds the real min among the roots
+            this.deleteMin();
+        }
+    }
+
+   /**
+    * private void cutToRoot(Node x)
+    *
+    * Cuts x with its left subtree from its parent, puts its right child in its place, adds x to the
+    * roots and lowers the ranks of the old ancestors of x by the type-2 rank rule.
+    * @pre: x is not a root
+    *
+    * complexity : O(1) amortized
+    */
+    private void cutToRoot(Node x) {
+        Node parent = x.parent;
+        Node replacement = x.right;
+        if (parent.left == x) {
+            parent.left = replacement;
+        } else {
+            parent.right = replacement;
+        }
+        if (replacement != null) {
+            replacement.parent = parent;
+        }
+        x.parent = null;
+        x.rank = rank(x.left) + 1;
+        this.addRoot(x);
+
+        //rank reduction - walk up while ranks drop
+        Node u = parent;
+        while (u.parent != null) {
+            int r1 = rank(u.left);
+            int r2 = rank(u.right);
+            int k = r1 > r2 + 1 || r2 > r1 + 1 ? Math.max(r1, r2) : Math.max(r1, r2) + 1;
+            if (k >= u.rank) {
+                return;
+            }
+            u.rank = k;
+            u = u.parent;
+        }
+        u.rank = rank(u.left) + 1;  //u is a root
+    }
+
+   /**
+    * private void addRoot(Node x)
+    *
+    * Adds the root x to the roots list, after the min, and updates the min.
+    *
+    * complexity : O(1)
+    */
+    private void addRoot(Node x) {
+        if (this.min == null) {
+            x.right = x;
+            this.min = x;
+        } else {
+            x.right = this.min.right;
+            this.min.right = x;
+            if (x.key < this.min.key) {
+                this.min = x;
+            }
+        }
+    }
+
+   /**
+    * private static Node link(Node x, Node y)
+    *
+    * Links two roots of equal rank : the root with the larger key becomes the left child of the other,
+    * and takes the old left subtree of the winner as its right subtree.
+    *
+    * complexity : O(1)
+    */
+    private static Node link(Node x, Node y) {
+        if (y.key < x.key) {
+            Node temp = x;
+            x = y;
+            y = temp;
+        }
+        y.right = x.left;
+        if (x.left != null) {
+            x.left.parent = y;
+        }
+        y.parent = x;
+        x.left = y;
+        x.rank = y.rank + 1;
+        x.right = null;
+        return x;
+    }
+
+    private static int rank(Node x) {
+        return x == null ? -1 : x.rank;
+    }
+
+   /**
+    * public static class Node
+    */
+    public static class Node implements PriorityHeap.Node {
+        private int key;
+        private int rank = 0;
+        private Node left = null;
+        private Node right = null;  //next root for a root
+        private Node parent = null;
+
+        public Node(int key) {
+            this.key = key;
+        }
+
+        public int getKey() {
+            return this.key;
+        }
+    }
+}
@@ -2,6 +2,7 @@
 //FibonacciHeap Tester
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 
 
@@ -174,6 +175,126 @@ public class Test {
             System.out.println("Bug found in " + "test30");
             grade -= 8;
         }
+        try {
+            test31();
+        } catch (Exception e) {
+            bugFound("test31");
+        }
+        try {
+            test32();
+        } catch (Exception e) {
+            bugFound("test32");
+        }
+        try {
+            test33();
+        } catch (Exception e) {
+            bugFound("test33");
+        }
+        try {
+            test34();
+        } catch (Exception e) {
+            bugFound("test34");
+        }
+        try {
+            test35();
+        } catch (Exception e) {
+            bugFound("test35");
+        }
+        try {
+            test36();
+        } catch (Exception e) {
+            bugFound("test36");
+        }
+        try {
+            test37();
+        } catch (Exception e) {
+            bugFound("test37");
+        }
+        try {
+            test38();
+        } catch (Exception e) {
+            bugFound("test38");
+        }
+        try {
+            test39();
+        } catch (Exception e) {
+            bugFound("test39");
+        }
+        try {
+            test40();
+        } catch (Exception e) {
+            bugFound("test40");
+        }
+        try {
+            test41();
+        } catch (Exception e) {
+            bugFound("test41");
+        }
+        try {
+            test42();
+        } catch (Exception | StackOverflowError e) {
+            bugFound("test42");
+        }
+        try {
+            test43();
+        } catch (Exception e) {
+            bugFound("test43");
+        }
+        try {
+            test44();
+        } catch (Exception e) {
+            bugFound("test44");
+        }
+        try {
+            test45();
+        } catch (Exception e) {
+            bugFound("test45");
+        }
+        try {
+            test46();
+        } catch (Exception e) {
+            bugFound("test46");
+        }
+        try {
+            test47();
+        } catch (Exception e) {
+            bugFound("test47");
+        }
+        try {
+            test48();
+        } catch (Exception e) {
+            bugFound("test48");
+        }
+        try {
+            test49();
+        } catch (Exception e) {
+            bugFound("test49");
+        }
+        try {
+            test50();
+        } catch (Exception e) {
+            bugFound("test50");
+        }
+        try {
+            test51();
+        } catch (Exception e) {
+            bugFound("test51");
+        }
+        try {
+            test52();
+        } catch (Exception e) {
+            bugFound("test52");
+        }
+        try {
+            test53();
+        } catch (Exception | StackOverflowError e) {
+            bugFound("test53");
+        }
+        try {
+            test54();
+        } catch (Exception e) {
+            bugFound("test54");
+        }
         System.out.println(grade);
         System.exit((int) grade);
     }
@@ -1004,6 +1125,1379 @@ public class Test {
 
     }
 
+    static void test31() {
+        /* long keys beyond the int range */
+        String test = "test31";
+        LongFibonacciHeap longHeap = new LongFibonacciHeap();
+        long base = 1L << 40;
+        LongFibonacciHeap.HeapNode[] nodes = new LongFibonacciHeap.HeapNode[1000];
+        for (int i = 999; i >= 0; i--) {
+            nodes[i] = longHeap.insert(base + i * (1L << 33));
+        }
+        longHeap.deleteMin();
+        longHeap.decreaseKey(nodes[500], 500 * (1L << 33));
+        longHeap.delete(nodes[999]);
+        if (longHeap.findMin().getKey() != base || longHeap.size() != 998) {
+            bugFound(test);
+            return;
+        }
+        longHeap.deleteMin();
+        for (int i = 1; i < 999; i++) {
+            if (i == 500) {
+                continue;
+            }
+            if (longHeap.findMin().getKey() != base + i * (1L << 33)) {
+                bugFound(test);
+                return;
+            }
+            longHeap.deleteMin();
+        }
+        if (!longHeap.isEmpty())
+            bugFound(test);
+    }
+
+    static void test32() {
+        /* double keys */
+        String test = "test32";
+        DoubleFibonacciHeap doubleHeap = new DoubleFibonacciHeap();
+        ArrayList<Double> numbers = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            numbers.add(i / 8.0);
+        }
+        Collections.shuffle(numbers);
+        for (int i = 0; i < numbers.size(); i++) {
+            doubleHeap.insert(numbers.get(i));
+        }
+        for (int i = 0; i < 1000; i++) {
+            if (doubleHeap.findMin().getKey() != i / 8.0) {
+                bugFound(test);
+                return;
+            }
+            doubleHeap.deleteMin();
+        }
+        if (!doubleHeap.isEmpty())
+            bugFound(test);
+        try {
+            doubleHeap.insert(Double.NaN);
+            bugFound(test);
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+        DoubleFibonacciHeap.HeapNode infinite = doubleHeap.insert(Double.POSITIVE_INFINITY);
+        try {
+            doubleHeap.decreaseKey(infinite, Double.POSITIVE_INFINITY);
+            bugFound(test);
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+        if (doubleHeap.size() != 1 || doubleHeap.findMin().getKey() != Double.POSITIVE_INFINITY)
+            bugFound(test);
+    }
+
+    static void test33() {
+        /* values stored in the nodes */
+        String test = "test33";
+        ValueFibonacciHeap<String> valueHeap = new ValueFibonacciHeap<>();
+        ArrayList<Integer> numbers = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            numbers.add(i);
+        }
+        Collections.shuffle(numbers);
+        ValueFibonacciHeap.ValueNode<String> node = null;
+        for (int i = 0; i < numbers.size(); i++) {
+            node = valueHeap.insert(numbers.get(i) + 1, "v" + numbers.get(i));
+        }
+        valueHeap.decreaseKey(node, node.getKey());
+        if (valueHeap.findMin() != node || !valueHeap.findMinValue().equals(node.getValue())) {
+            bugFound(test);
+            return;
+        }
+        valueHeap.deleteMinValue();
+        for (int i = 0; i < 1000; i++) {
+            if (numbers.get(numbers.size() - 1) == i) {
+                continue;
+            }
+            if (valueHeap.findMin().getKey() != i + 1 || !valueHeap.deleteMinValue().equals("v" + i)) {
+                bugFound(test);
+                return;
+            }
+        }
+        if (!valueHeap.isEmpty() || valueHeap.deleteMinValue() != null)
+            bugFound(test);
+
+        //only value heaps are melded in
+        FibonacciHeap plainHeap = new FibonacciHeap();
+        plainHeap.insert(-1);
+        ValueFibonacciHeap<String> valueHeap2 = new ValueFibonacciHeap<>();
+        valueHeap2.insert(3, "v3");
+        try {
+            valueHeap.meld(plainHeap);
+            bugFound(test);
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+        try {
+            valueHeap.meldAll(valueHeap2, plainHeap);
+            bugFound(test);
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+        FibonacciHeap asPlain = valueHeap2;
+        valueHeap.meld(asPlain);
+        if (plainHeap.size() != 1 || valueHeap.size() != 1 || !valueHeap2.isEmpty() ||
+                !"v3".equals(valueHeap.findMinValue()))
+            bugFound(test);
+    }
+
+    static void test34() {
+        /* array backed heap against the reference heap */
+        String test = "test34";
+        heap = new Heap();
+        ArrayFibonacciHeap arrayHeap = new ArrayFibonacciHeap();
+        ArrayFibonacciHeap arrayHeap2 = new ArrayFibonacciHeap(4);
+        ArrayList<Integer> numbers = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            numbers.add(i);
+        }
+        Collections.shuffle(numbers);
+        int[] handles = new int[2000];
+        boolean[] removed = new boolean[2000];
+        for (int i = 0; i < 2000; i++) {
+            int key = 4 * numbers.get(i);
+            handles[i] = i < 1000 ? arrayHeap.insert(key) : arrayHeap2.insert(key);
+            heap.insert(key);
+        }
+        for (int i = 0; i < 100; i++) {
+            removed[numbers.indexOf(arrayHeap.getKey(arrayHeap.findMin()) / 4)] = true;
+            removed[numbers.indexOf(arrayHeap2.getKey(arrayHeap2.findMin()) / 4)] = true;
+            heap.delete(arrayHeap.getKey(arrayHeap.findMin()));
+            heap.delete(arrayHeap2.getKey(arrayHeap2.findMin()));
+            arrayHeap.deleteMin();
+            arrayHeap2.deleteMin();
+        }
+        int offset = arrayHeap.meld(arrayHeap2);
+        for (int i = 1000; i < 2000; i++) {
+            handles[i] += offset;
+        }
+        if (!arrayHeap2.isEmpty() || heap.size() != arrayHeap.size()) {
+            bugFound(test);
+            return;
+        }
+        for (int i = 0; i < 2000; i += 3) {
+            if (!removed[i]) {
+                int key = arrayHeap.getKey(handles[i]);
+                heap.delete(key);
+                heap.insert(key - 1 - i % 3);
+                arrayHeap.decreaseKey(handles[i], 1 + i % 3);
+            }
+        }
+        for (int i = 1; i < 2000; i += 7) {
+            if (!removed[i]) {
+                heap.delete(arrayHeap.getKey(handles[i]));
+                arrayHeap.delete(handles[i]);
+            }
+        }
+        while (!heap.isEmpty()) {
+            if (heap.findMin() != arrayHeap.getKey(arrayHeap.findMin()) || heap.size() != arrayHeap.size()) {
+                bugFound(test);
+                return;
+            }
+            heap.deleteMin();
+            arrayHeap.deleteMin();
+        }
+        if (!arrayHeap.isEmpty())
+            bugFound(test);
+        arrayHeap.insert(1);
+        arrayHeap.insert(2);
+        try {
+            arrayHeap.meld(arrayHeap);
+            bugFound(test);
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+        if (arrayHeap.size() != 2 || arrayHeap.getKey(arrayHeap.findMin()) != 1)
+            bugFound(test);
+    }
+
+    static void test35() throws java.io.IOException {
+        /* off-heap heap (direct and memory-mapped) against the reference heap */
+        String test = "test35";
+        heap = new Heap();
+        java.nio.file.Path file = java.nio.file.Files.createTempFile("fibheap", ".bin");
+        OffHeapFibonacciHeap offHeap = new OffHeapFibonacciHeap();
+        OffHeapFibonacciHeap offHeap2 = new OffHeapFibonacciHeap(file);
+        ArrayList<Integer> numbers = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            numbers.add(i);
+        }
+        Collections.shuffle(numbers);
+        long[] handles = new long[2000];
+        boolean[] removed = new boolean[2000];
+        for (int i = 0; i < 2000; i++) {
+            int key = 4 * numbers.get(i);
+            handles[i] = i < 1000 ? offHeap.insert(key) : offHeap2.insert(key);
+            heap.insert(key);
+        }
+        for (int i = 0; i < 100; i++) {
+            removed[numbers.indexOf(offHeap.getKey(offHeap.findMin()) / 4)] = true;
+            removed[numbers.indexOf(offHeap2.getKey(offHeap2.findMin()) / 4)] = true;
+            heap.delete(offHeap.getKey(offHeap.findMin()));
+            heap.delete(offHeap2.getKey(offHeap2.findMin()));
+            offHeap.deleteMin();
+            offHeap2.deleteMin();
+        }
+        long offset = offHeap.meld(offHeap2);
+        offHeap2.close();
+        java.nio.file.Files.deleteIfExists(file);
+        for (int i = 1000; i < 2000; i++) {
+            handles[i] += offset;
+        }
+        if (!offHeap2.isEmpty() || heap.size() != offHeap.size()) {
+            bugFound(test);
+            return;
+        }
+        for (int i = 0; i < 2000; i += 3) {
+            if (!removed[i]) {
+                int key = offHeap.getKey(handles[i]);
+                heap.delete(key);
+                heap.insert(key - 1 - i % 3);
+                offHeap.decreaseKey(handles[i], 1 + i % 3);
+            }
+        }
+        for (int i = 1; i < 2000; i += 7) {
+            if (!removed[i]) {
+                heap.delete(offHeap.getKey(handles[i]));
+                offHeap.delete(handles[i]);
+            }
+        }
+        while (!heap.isEmpty()) {
+            if (heap.findMin() != offHeap.getKey(offHeap.findMin()) || heap.size() != offHeap.size()) {
+                bugFound(test);
+                return;
+            }
+            heap.deleteMin();
+            offHeap.deleteMin();
+        }
+        if (!offHeap.isEmpty())
+            bugFound(test);
+        offHeap.insert(1);
+        offHeap.insert(2);
+        try {
+            offHeap.meld(offHeap);
+            bugFound(test);
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+        if (offHeap.size() != 2 || offHeap.getKey(offHeap.findMin()) != 1)
+            bugFound(test);
+    }
+
+    static void test36() {
+        /* insertAll and fromArray */
+        String test = "test36";
+        heap = new Heap();
+        ArrayList<Integer> numbers = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            numbers.add(i);
+        }
+        Collections.shuffle(numbers);
+        int[] first = new int[1000];
+        int[] second = new int[2000];
+        for (int i = 0; i < 3000; i++) {
+            if (i < 1000) {
+                first[i] = numbers.get(i) + 10;
+            } else {
+                second[i - 1000] = numbers.get(i) + 10;
+            }
+            heap.insert(numbers.get(i) + 10);
+        }
+        fibonacciHeap = FibonacciHeap.fromArray(first);
+        heap.delete(fibonacciHeap.findMin().getKey());
+        fibonacciHeap.deleteMin();
+        FibonacciHeap.HeapNode[] nodes = fibonacciHeap.insertAll(second);
+        if (nodes.length != second.length || fibonacciHeap.insertAll(new int[0]).length != 0) {
+            bugFound(test);
+            return;
+        }
+        for (int i = 0; i < nodes.length; i += 100) {
+            if (nodes[i].getKey() != second[i]) {
+                bugFound(test);
+                return;
+            }
+            heap.delete(second[i]);
+            heap.insert(-1 - i / 100);
+            fibonacciHeap.decreaseKey(nodes[i], second[i] + 1 + i / 100);
+        }
+        while (!heap.isEmpty()) {
+            if (heap.findMin() != fibonacciHeap.findMin().getKey() || heap.size() != fibonacciHeap.size()) {
+                bugFound(test);
+                return;
+            }
+            heap.deleteMin();
+            fibonacciHeap.deleteMin();
+        }
+        if (!fibonacciHeap.isEmpty())
+            bugFound(test);
+    }
+
+    static void test37() {
+        /* deleteMinBatch */
+        String test = "test37";
+        heap = new Heap();
+        fibonacciHeap = new FibonacciHeap();
+        addKeys(0);
+        addKeysReverse(4000);
+        addKeys(2000);
+        fibonacciHeap.deleteMin();
+        heap.deleteMin();
+        FibonacciHeap.HeapNode node = fibonacciHeap.insert(8000);
+        heap.insert(8000);
+        for (int i = 0; i < 500; i++) {
+            fibonacciHeap.insert(9000 + i);
+            heap.insert(9000 + i);
+        }
+        int[] out = new int[7];
+        int[] sizes = {1, 7, 100, 300, 2500};
+        for (int size : sizes) {
+            int[] batch = size == 7 ? out : fibonacciHeap.deleteMinBatch(size);
+            if (size == 7 && fibonacciHeap.deleteMinBatch(out) != 7) {
+                bugFound(test);
+                return;
+            }
+            for (int key : batch) {
+                if (key != heap.deleteMin()) {
+                    bugFound(test);
+                    return;
+                }
+            }
+            if (heap.findMin() != fibonacciHeap.findMin().getKey() || heap.size() != fibonacciHeap.size()) {
+                bugFound(test);
+                return;
+            }
+        }
+        heap.delete(8000);
+        heap.insert(-1);
+        fibonacciHeap.decreaseKey(node, 8001);
+        int[] rest = fibonacciHeap.deleteMinBatch(10000);
+        if (rest.length != heap.size() || !fibonacciHeap.isEmpty() || fibonacciHeap.deleteMinBatch(5).length != 0) {
+            bugFound(test);
+            return;
+        }
+        for (int key : rest) {
+            if (key != heap.deleteMin()) {
+                bugFound(test);
+                return;
+            }
+        }
+    }
+
+    static void test38() {
+        /* kMin on a heap with many trees */
+        String test = "test38";
+        heap = new Heap();
+        fibonacciHeap = new FibonacciHeap();
+        addKeysReverse(1000);
+        fibonacciHeap.deleteMin();
+        heap.deleteMin();
+        addKeys(3000);
+        addKeys(-2000);
+        int potential = fibonacciHeap.potential();
+        int[] kmin = FibonacciHeap.kMin(fibonacciHeap, 1500);
+        if (kmin.length != 1500 || FibonacciHeap.kMin(fibonacciHeap, 0).length != 0 ||
+                FibonacciHeap.kMin(fibonacciHeap, 5000).length != heap.size() ||
+                fibonacciHeap.potential() != potential) {
+            bugFound(test);
+            return;
+        }
+        for (int i = 0; i < kmin.length; i++) {
+            if (kmin[i] != heap.findMin() || heap.findMin() != fibonacciHeap.findMin().getKey()) {
+                bugFound(test);
+                return;
+            }
+            heap.deleteMin();
+            fibonacciHeap.deleteMin();
+        }
+    }
+
+    static void test39() throws InterruptedException {
+        /* concurrent heap - no key is lost or duplicated, strict deleteMin is ordered */
+        String test = "test39";
+        final ConcurrentFibonacciHeap concurrentHeap = new ConcurrentFibonacciHeap(8);
+        final int perThread = 5000;
+        final long[] polledSums = new long[4];
+        final int[] polledCounts = new int[4];
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int thread = t;
+            threads[t] = new Thread(new Runnable() {
+                public void run() {
+                    for (int i = 0; i < perThread; i++) {
+                        concurrentHeap.insert(thread * perThread + i);
+                        if (i % 2 == 1) {
+                            //may miss keys which are inserted into stripes it already scanned
+                            long key = concurrentHeap.pollApproxMin();
+                            if (key != ConcurrentFibonacciHeap.EMPTY) {
+                                polledSums[thread] += key;
+                                polledCounts[thread]++;
+                            }
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        long expectedSum = 0;
+        for (int i = 0; i < threads.length * perThread; i++) {
+            expectedSum += i;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long sum = 0;
+        int polledCount = 0;
+        for (int t = 0; t < threads.length; t++) {
+            sum += polledSums[t];
+            polledCount += polledCounts[t];
+        }
+        if (concurrentHeap.size() != threads.length * perThread - polledCount) {
+            bugFound(test);
+            return;
+        }
+        long previous = Long.MIN_VALUE;
+        while (!concurrentHeap.isEmpty()) {
+            long key = concurrentHeap.deleteMin();
+            if (key < previous) {
+                bugFound(test);
+                return;
+            }
+            sum += key;
+            previous = key;
+        }
+        if (sum != expectedSum || concurrentHeap.deleteMin() != ConcurrentFibonacciHeap.EMPTY)
+            bugFound(test);
+    }
+
+    static void test40() {
+        /* per heap statistics */
+        String test = "test40";
+        int totalLinks = FibonacciHeap.totalLinks();
+        int totalCuts = FibonacciHeap.totalCuts();
+        FibonacciHeap first = new FibonacciHeap();
+        FibonacciHeap second = new FibonacciHeap();
+        FibonacciHeap.HeapNode[] nodes = new FibonacciHeap.HeapNode[1025];
+        for (int i = 0; i < 1025; i++) {
+            nodes[i] = first.insert(i);
+            second.insert(i);
+        }
+        first.deleteMin();
+        second.deleteMin();
+        second.deleteMin();
+        first.decreaseKey(nodes[1024], 2000);
+        if (first.getLinksCount() != 1023 || first.getConsolidationsCount() != 1 ||
+                first.getRootsScannedCount() != 1024 || first.getCutsCount() != 1 ||
+                first.getCascadingCutsHistogram()[1] != 1 || second.getCutsCount() != 0 ||
+                second.getConsolidationsCount() != 2 || second.getCascadingCutsHistogram()[1] != 0 ||
+                FibonacciHeap.totalLinks() - totalLinks != first.getLinksCount() + second.getLinksCount() ||
+                FibonacciHeap.totalCuts() - totalCuts != 1)
+            bugFound(test);
+    }
+
+    static void test41() {
+        /* metrics listener and histograms */
+        String test = "test41";
+        HeapMetrics.Histogram histogram = new HeapMetrics.Histogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        long p50 = histogram.getValueAtPercentile(50);
+        long p99 = histogram.getValueAtPercentile(99);
+        if (histogram.getCount() != 1000 || histogram.getMax() != 1000 || histogram.getMean() != 500.5 ||
+                p50 < 500 || p50 > 500 + 500 / 32 || p99 < 990 || p99 > 1000 ||
+                histogram.getValueAtPercentile(0) != 1 || histogram.getValueAtPercentile(100) != 1000)
+            bugFound(test);
+
+        HeapMetrics metrics = new HeapMetrics();
+        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap.setListener(metrics);
+        FibonacciHeap.HeapNode[] nodes = new FibonacciHeap.HeapNode[1025];
+        for (int i = 0; i < 1025; i++) {
+            nodes[i] = fibonacciHeap.insert(i);
+        }
+        fibonacciHeap.deleteMin();
+        fibonacciHeap.delete(nodes[512]);
+        fibonacciHeap.decreaseKey(nodes[1024], 2000);
+        if (fibonacciHeap.size() != 1023 || fibonacciHeap.findMin().getKey() != -976)
+            bugFound(test);
+        //the listener is called only when the JVM runs with -Dfibheap.metrics=true
+        long expected = FibonacciHeap.METRICS_ENABLED ? 1 : 0;
+        if (metrics.deleteNanos.getCount() != expected || metrics.deleteMinNanos.getCount() != expected ||
+                metrics.decreaseKeyNanos.getCount() != expected || (expected == 1 && metrics.deleteMinNanos.getMax() <= 0) ||
+                metrics.rootsPerDeleteMin.getMax() != 1024 * expected ||
+                metrics.linksPerDeleteMin.getMax() != 1023 * expected || metrics.cutDepth.getMax() != expected)
+            bugFound(test);
+    }
+
+    static void test42() {
+        /* cascading cuts along a path of marked nodes longer than the stack */
+        String test = "test42";
+        int depth = 200000;
+        fibonacciHeap = new FibonacciHeap();
+        FibonacciHeap.HeapNode[] bottom = MarkedChain.build(fibonacciHeap, depth);
+        if (fibonacciHeap.getTreeCount() != 1 || fibonacciHeap.getMarkedCount() != depth)
+            bugFound(test);
+        fibonacciHeap.decreaseKey(bottom[0], bottom[0].getKey() + 1);
+        long cuts = fibonacciHeap.getCutsCount();
+        fibonacciHeap.decreaseKey(bottom[1], bottom[1].getKey() + 2);
+        if (fibonacciHeap.getCutsCount() - cuts != depth + 1 || fibonacciHeap.getMarkedCount() != 0 ||
+                fibonacciHeap.getTreeCount() != depth + 3 || fibonacciHeap.findMin().getKey() != -2)
+            bugFound(test);
+        int size = fibonacciHeap.size();
+        int prev = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            int key = fibonacciHeap.findMin().getKey();
+            if (key < prev) {
+                bugFound(test);
+                return;
+            }
+            prev = key;
+            fibonacciHeap.deleteMin();
+        }
+        if (!fibonacciHeap.isEmpty())
+            bugFound(test);
+    }
+
+    static void test43() {
+        /* delete near Integer.MAX_VALUE and below a negative min, without key arithmetic */
+        String test = "test43";
+        heap = new Heap();
+        fibonacciHeap = new FibonacciHeap();
+        ArrayList<Integer> numbers = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            numbers.add(i);
+        }
+        Collections.shuffle(numbers);
+        FibonacciHeap.HeapNode[] nodes = new FibonacciHeap.HeapNode[2000];
+        for (int i : numbers) {
+            int key = i < 1000 ? Integer.MAX_VALUE - i : Integer.MIN_VALUE + i;
+            nodes[i] = fibonacciHeap.insert(key);
+            heap.insert(key);
+        }
+        heap.deleteMin();
+        fibonacciHeap.deleteMin();
+        Collections.shuffle(numbers);
+        for (int i : numbers.subList(0, 1500)) {
+            if (i == 1000) {  //deleted by deleteMin
+                continue;
+            }
+            heap.delete(nodes[i].getKey());
+            fibonacciHeap.delete(nodes[i]);
+            if (heap.findMin() != fibonacciHeap.findMin().getKey() || heap.size() != fibonacciHeap.size()) {
+                bugFound(test);
+                return;
+            }
+        }
+        while (!heap.isEmpty()) {
+            if (heap.findMin() != fibonacciHeap.findMin().getKey() || heap.size() != fibonacciHeap.size()) {
+                bugFound(test);
+                return;
+            }
+            heap.deleteMin();
+            fibonacciHeap.deleteMin();
+        }
+        if (!fibonacciHeap.isEmpty() || fibonacciHeap.getMarkedCount() != 0)
+            bugFound(test);
+    }
+
+    static void test44() {
+        /* lazy cancellation */
+        String test = "test44";
+        heap = new Heap();
+        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap.setPurgeRatio(0.3);
+        ArrayList<Integer> numbers = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            numbers.add(i);
+        }
+        Collections.shuffle(numbers);
+        FibonacciHeap.HeapNode[] nodes = new FibonacciHeap.HeapNode[3000];
+        for (int i : numbers) {
+            nodes[i] = fibonacciHeap.insert(i);
+            heap.insert(i);
+        }
+        heap.deleteMin();
+        fibonacciHeap.deleteMin();
+        Collections.shuffle(numbers);
+        int purges = 0;
+        for (int j = 0; j < 2000; j++) {
+            int i = numbers.get(j);
+            if (i == 0) {  //deleted by deleteMin
+                continue;
+            }
+            int cancelledBefore = fibonacciHeap.getCancelledCount();
+            heap.delete(i);
+            fibonacciHeap.cancel(nodes[i]);
+            fibonacciHeap.cancel(nodes[i]);
+            if (!nodes[i].isCancelled() || heap.size() != fibonacciHeap.size()) {
+                bugFound(test);
+                return;
+            }
+            if (fibonacciHeap.getCancelledCount() < cancelledBefore) {
+                purges++;
+            }
+            if (j % 100 == 0) {
+                int[] expected = new int[10];
+                for (int m = 0; m < 10; m++) {
+                    expected[m] = heap.findMin();
+                    heap.deleteMin();
+                }
+                for (int key : expected) {
+                    heap.insert(key);
+                }
+                if (!Arrays.equals(expected, FibonacciHeap.kMin(fibonacciHeap, 10)) ||
+                        heap.findMin() != fibonacciHeap.findMin().getKey()) {
+                    bugFound(test);
+                    return;
+                }
+            }
+        }
+        if (purges == 0 || fibonacciHeap.getCancelledCount() == 0)
+            bugFound(test);
+
+        int[] batch = fibonacciHeap.deleteMinBatch(100);
+        for (int key : batch) {
+            if (key != heap.findMin()) {
+                bugFound(test);
+                return;
+            }
+            heap.deleteMin();
+        }
+        while (!heap.isEmpty()) {
+            if (heap.findMin() != fibonacciHeap.findMin().getKey() || heap.size() != fibonacciHeap.size()) {
+                bugFound(test);
+                return;
+            }
+            heap.deleteMin();
+            fibonacciHeap.deleteMin();
+        }
+        if (!fibonacciHeap.isEmpty() || fibonacciHeap.findMin() != null || fibonacciHeap.getCancelledCount() != 0)
+            bugFound(test);
+    }
+
+    static void test45() {
+        /* increaseKey and updateKey keep the node */
+        String test = "test45";
+        heap = new Heap();
+        fibonacciHeap = new FibonacciHeap();
+        ArrayList<Integer> numbers = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            numbers.add(i);
+        }
+        Collections.shuffle(numbers);
+        FibonacciHeap.HeapNode[] nodes = new FibonacciHeap.HeapNode[2001];
+        for (int i : numbers) {
+            nodes[i] = fibonacciHeap.insert(10 * i);
+            heap.insert(10 * i);
+        }
+        nodes[2000] = fibonacciHeap.insert(-1);
+        fibonacciHeap.deleteMin();
+        //every key is a distinct multiple of 10, keys are moved both ways to free multiples of 10
+        java.util.Set<Integer> used = new java.util.HashSet<>();
+        for (int i = 0; i < 2000; i++) {
+            used.add(10 * i);
+        }
+        java.util.Random random = new java.util.Random(7);
+        for (int j = 0; j < 3000; j++) {
+            FibonacciHeap.HeapNode node = nodes[random.nextInt(2000)];
+            int newKey;
+            do {
+                newKey = 10 * (random.nextInt(4000) - 1000);
+            } while (used.contains(newKey));
+            used.remove(node.getKey());
+            used.add(newKey);
+            heap.delete(node.getKey());
+            heap.insert(newKey);
+            if (j % 2 == 0) {
+                fibonacciHeap.updateKey(node, newKey);
+            } else if (newKey > node.getKey()) {
+                fibonacciHeap.increaseKey(node, newKey - node.getKey());
+            } else {
+                fibonacciHeap.decreaseKey(node, node.getKey() - newKey);
+            }
+            if (node.getKey() != newKey || heap.findMin() != fibonacciHeap.findMin().getKey() ||
+                    heap.size() != fibonacciHeap.size()) {
+                bugFound(test);
+                return;
+            }
+        }
+        //deltas which do not fit in an int
+        heap.delete(nodes[0].getKey());
+        heap.insert(Integer.MAX_VALUE);
+        fibonacciHeap.updateKey(nodes[0], -5);
+        fibonacciHeap.updateKey(nodes[0], Integer.MAX_VALUE);
+        heap.delete(nodes[1].getKey());
+        heap.insert(Integer.MIN_VALUE);
+        fibonacciHeap.updateKey(nodes[1], 5);
+        fibonacciHeap.updateKey(nodes[1], Integer.MIN_VALUE);
+        if (fibonacciHeap.findMin() != nodes[1] || nodes[0].getKey() != Integer.MAX_VALUE)
+            bugFound(test);
+        while (!heap.isEmpty()) {
+            if (heap.findMin() != fibonacciHeap.findMin().getKey() || heap.size() != fibonacciHeap.size()) {
+                bugFound(test);
+                return;
+            }
+            heap.deleteMin();
+            fibonacciHeap.deleteMin();
+        }
+        if (!fibonacciHeap.isEmpty() || fibonacciHeap.getMarkedCount() != 0)
+            bugFound(test);
+    }
+
+    static void test46() {
+        /* node pool and stale handles */
+        String test = "test46";
+        heap = new Heap();
+        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap.setNodePool(16);
+        FibonacciHeap.HeapNode[] nodes = new FibonacciHeap.HeapNode[1000];
+        int[] generations = new int[1000];
+        for (int i = 0; i < 1000; i++) {
+            nodes[i] = fibonacciHeap.insert(i);
+            generations[i] = nodes[i].getGeneration();
+            heap.insert(i);
+        }
+        FibonacciHeap.HeapNode first = fibonacciHeap.findMin();
+        fibonacciHeap.deleteMin();
+        heap.deleteMin();
+        fibonacciHeap.delete(nodes[500], generations[500]);
+        heap.delete(500);
+        if (fibonacciHeap.isLive(first, generations[0]) || fibonacciHeap.isLive(nodes[500], generations[500]) ||
+                !fibonacciHeap.isLive(nodes[1], generations[1]) || fibonacciHeap.getPooledCount() != 2)
+            bugFound(test);
+
+        //the pooled nodes are reused, and their old handles stay stale
+        FibonacciHeap.HeapNode reused = fibonacciHeap.insert(2000);
+        heap.insert(2000);
+        if ((reused != nodes[500] && reused != first) || reused.getKey() != 2000 ||
+                reused.getRank() != 0 || reused.getChild() != null || fibonacciHeap.getPooledCount() != 1)
+            bugFound(test);
+        try {
+            fibonacciHeap.decreaseKey(nodes[500], generations[500], 10);
+            fibonacciHeap.decreaseKey(first, generations[0], 10);
+            bugFound(test);
+        } catch (IllegalStateException e) {
+            //expected
+        }
+        fibonacciHeap.decreaseKey(reused, reused.getGeneration(), 1500);
+        heap.delete(2000);
+        heap.insert(500);
+
+        //churn with a full pool
+        for (int i = 1000; i < 3000; i++) {
+            int key = fibonacciHeap.findMin().getKey();
+            if (key != heap.findMin()) {
+                bugFound(test);
+                return;
+            }
+            fibonacciHeap.deleteMin();
+            heap.deleteMin();
+            fibonacciHeap.insert(i + 2000);
+            heap.insert(i + 2000);
+            if (fibonacciHeap.getPooledCount() > 16) {
+                bugFound(test);
+                return;
+            }
+        }
+        fibonacciHeap.setNodePool(0);
+        if (fibonacciHeap.getPooledCount() != 0)
+            bugFound(test);
+        while (!heap.isEmpty()) {
+            if (heap.findMin() != fibonacciHeap.findMin().getKey() || heap.size() != fibonacciHeap.size()) {
+                bugFound(test);
+                return;
+            }
+            heap.deleteMin();
+            fibonacciHeap.deleteMin();
+        }
+        if (!fibonacciHeap.isEmpty())
+            bugFound(test);
+    }
+
+    static void test47() {
+        /* the PriorityHeap implementations against the reference heap */
+        String test = "test47";
+        if (!priorityHeapMatches(new FibonacciHeap()) || !priorityHeapMatches(new PairingHeap()) ||
+                !priorityHeapMatches(new RankPairingHeap()))
+            bugFound(test);
+        PairingHeap pairingHeap = new PairingHeap();
+        pairingHeap.insert(2);
+        pairingHeap.insert(1);
+        try {
+            pairingHeap.meld(pairingHeap);
+            bugFound(test);
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+        if (pairingHeap.size() != 2 || pairingHeap.findMin().getKey() != 1)
+            bugFound(test);
+    }
+
+    static <N extends PriorityHeap.Node> boolean priorityHeapMatches(PriorityHeap<N> priorityHeap) {
+        heap = new Heap();
+        java.util.Random random = new java.util.Random(47);
+        ArrayList<N> nodes = new ArrayList<>();
+        java.util.Set<Integer> used = new java.util.HashSet<>();
+        for (int i = 0; i < 20000; i++) {
+            int op = random.nextInt(10);
+            if (op < 4 || nodes.isEmpty()) {
+                int key;
+                do {
+                    key = random.nextInt(1000000);
+                } while (!used.add(key));
+                nodes.add(priorityHeap.insert(key));
+                heap.insert(key);
+            } else if (op < 7) {
+                //decrease a random live key to a free key
+                N node = nodes.get(random.nextInt(nodes.size()));
+                int key;
+                do {
+                    key = node.getKey() - 1 - random.nextInt(1000);
+                } while (used.contains(key));
+                used.remove(node.getKey());
+                used.add(key);
+                heap.delete(node.getKey());
+                heap.insert(key);
+                priorityHeap.decreaseKey(node, node.getKey() - key);
+            } else if (op < 8) {
+                int index = random.nextInt(nodes.size());
+                N node = nodes.get(index);
+                nodes.set(index, nodes.get(nodes.size() - 1));
+                nodes.remove(nodes.size() - 1);
+                used.remove(node.getKey());
+                heap.delete(node.getKey());
+                priorityHeap.delete(node);
+            } else {
+                N min = priorityHeap.findMin();
+                nodes.remove(min);
+                used.remove(min.getKey());
+                heap.deleteMin();
+                priorityHeap.deleteMin();
+            }
+            if (heap.size() != priorityHeap.size() || heap.isEmpty() != priorityHeap.isEmpty() ||
+                    (!heap.isEmpty() && heap.findMin() != priorityHeap.findMin().getKey())) {
+                return false;
+            }
+        }
+        while (!heap.isEmpty()) {
+            if (heap.findMin() != priorityHeap.findMin().getKey() || heap.size() != priorityHeap.size()) {
+                return false;
+            }
+            heap.deleteMin();
+            priorityHeap.deleteMin();
+        }
+        return priorityHeap.isEmpty() && priorityHeap.findMin() == null;
+    }
+
+    static void test48() {
+        /* indexed heap by ids */
+        String test = "test48";
+        int n = 2000;
+        IndexedFibonacciHeap indexed = new IndexedFibonacciHeap(n);
+        int[] keys = new int[n];
+        java.util.Random random = new java.util.Random(48);
+        for (int id = 0; id < n; id += 2) {
+            keys[id] = 10 * random.nextInt(1000000) + 5;
+            indexed.insert(id, keys[id]);
+        }
+        if (indexed.size() != n / 2 || !indexed.contains(10) || indexed.contains(11) ||
+                indexed.keyOf(10) != keys[10] || indexed.decreaseKeyTo(10, keys[10] + 1))
+            bugFound(test);
+        try {
+            indexed.insert(10, 0);
+            bugFound(test);
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+        try {
+            indexed.decreaseKeyTo(11, 0);
+            bugFound(test);
+        } catch (java.util.NoSuchElementException e) {
+            //expected
+        }
+        for (int i = 0; i < 1000; i++) {
+            int id = 2 * random.nextInt(n / 2);
+            if (indexed.contains(id)) {
+                keys[id] -= 10 * random.nextInt(1000);
+                indexed.decreaseKeyTo(id, keys[id]);
+            }
+            if (i % 10 == 0 && indexed.contains(id)) {
+                indexed.delete(id);
+                keys[id] = Integer.MAX_VALUE;
+            }
+        }
+        //drain - ids come out by key, ties broken by id
+        int lastKey = Integer.MIN_VALUE;
+        int count = 0;
+        while (!indexed.isEmpty()) {
+            int key = indexed.minKey();
+            int id = indexed.deleteMin();
+            if (indexed.contains(id) || keys[id] != key || key < lastKey) {
+                bugFound(test);
+                return;
+            }
+            lastKey = key;
+            count++;
+        }
+        for (int id = 0; id < n; id += 2) {
+            if (keys[id] != Integer.MAX_VALUE) {
+                count--;
+            }
+        }
+        if (count != 0 || indexed.deleteMin() != -1 || indexed.minId() != -1)
+            bugFound(test);
+        //the drained heap takes the ids again, on reused nodes
+        for (int id = n - 1; id >= 0; id--) {
+            indexed.insert(id, id % 100);
+        }
+        for (int i = 0; i < n; i++) {
+            int key = indexed.minKey();
+            int id = indexed.deleteMin();
+            if (id % 100 != key || key != i / (n / 100) || indexed.contains(id)) {
+                bugFound(test);
+                return;
+            }
+        }
+    }
+
+    static void test49() {
+        /* dijkstra and prim on a CSR graph against quadratic references */
+        String test = "test49";
+        int n = 300;
+        int m = 1500;
+        java.util.Random random = new java.util.Random(49);
+        //an undirected graph - every edge in both directions - with a few isolated vertices
+        int[] from = new int[2 * m];
+        int[] to = new int[2 * m];
+        int[] weight = new int[2 * m];
+        int[][] matrix = new int[n][n];
+        for (int[] row : matrix) {
+            Arrays.fill(row, Graph.UNREACHED);
+        }
+        for (int i = 0; i < m; i++) {
+            int u = random.nextInt(n - 10);
+            int v = random.nextInt(n - 10);
+            int w = random.nextInt(100);
+            from[2 * i] = u;
+            to[2 * i] = v;
+            from[2 * i + 1] = v;
+            to[2 * i + 1] = u;
+            weight[2 * i] = w;
+            weight[2 * i + 1] = w;
+            if (u != v && w < matrix[u][v]) {
+                matrix[u][v] = w;
+                matrix[v][u] = w;
+            }
+        }
+        Graph graph = Graph.fromEdges(n, from, to, weight);
+        if (graph.vertexCount() != n || graph.edgeCount() != 2 * m)
+            bugFound(test);
+
+        //dijkstra against bellman-ford over the matrix
+        int[] expected = new int[n];
+        Arrays.fill(expected, Graph.UNREACHED);
+        expected[0] = 0;
+        for (boolean changed = true; changed; ) {
+            changed = false;
+            for (int u = 0; u < n; u++) {
+                for (int v = 0; v < n; v++) {
+                    if (expected[u] != Graph.UNREACHED && matrix[u][v] != Graph.UNREACHED &&
+                            expected[u] + matrix[u][v] < expected[v]) {
+                        expected[v] = expected[u] + matrix[u][v];
+                        changed = true;
+                    }
+                }
+            }
+        }
+        Graph.Tree paths = graph.dijkstra(0);
+        int[] dist = paths.getDist();
+        int[] parent = paths.getParent();
+        for (int v = 0; v < n; v++) {
+            if (dist[v] != expected[v] || (parent[v] == -1) != (v == 0 || dist[v] == Graph.UNREACHED) ||
+                    (parent[v] != -1 && dist[parent[v]] + matrix[parent[v]][v] != dist[v])) {
+                bugFound(test);
+                return;
+            }
+        }
+
+        //prim against the quadratic prim over the matrix
+        int[] key = new int[n];
+        boolean[] inTree = new boolean[n];
+        Arrays.fill(key, Graph.UNREACHED);
+        key[0] = 0;
+        long expectedWeight = 0;
+        int expectedCount = 0;
+        while (true) {
+            int u = -1;
+            for (int v = 0; v < n; v++) {
+                if (!inTree[v] && key[v] != Graph.UNREACHED && (u == -1 || key[v] < key[u])) {
+                    u = v;
+                }
+            }
+            if (u == -1) {
+                break;
+            }
+            inTree[u] = true;
+            expectedWeight += key[u];
+            expectedCount++;
+            for (int v = 0; v < n; v++) {
+                if (!inTree[v] && matrix[u][v] < key[v]) {
+                    key[v] = matrix[u][v];
+                }
+            }
+        }
+        Graph.Tree spanning = graph.prim(0);
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            int p = spanning.getParent()[v];
+            if (spanning.getDist()[v] != Graph.UNREACHED) {
+                count++;
+                if (v != 0 && matrix[p][v] != spanning.getDist()[v]) {
+                    bugFound(test);
+                    return;
+                }
+            }
+        }
+        if (spanning.totalWeight() != expectedWeight || count != expectedCount ||
+                spanning.getDist()[n - 1] != Graph.UNREACHED)
+            bugFound(test);
+        try {
+            new Graph(new int[]{0, 2}, new int[]{0}, new int[]{0});
+            bugFound(test);
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+    }
+
+    static void test50() {
+        /* dijkstraBatch gives the trees of single dijkstra runs */
+        String test = "test50";
+        int n = 2000;
+        java.util.Random random = new java.util.Random(50);
+        int[] from = new int[8 * n];
+        int[] to = new int[8 * n];
+        int[] weight = new int[8 * n];
+        for (int i = 0; i < 8 * n; i++) {
+            from[i] = random.nextInt(n);
+            to[i] = random.nextInt(n);
+            weight[i] = random.nextInt(1000);
+        }
+        Graph graph = Graph.fromEdges(n, from, to, weight);
+        int[] sources = new int[100];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = random.nextInt(n);
+        }
+        java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(4);
+        try {
+            Graph.Tree[] trees = graph.dijkstraBatch(sources, pool);
+            for (int i = 0; i < sources.length; i++) {
+                Graph.Tree single = graph.dijkstra(sources[i]);
+                if (!Arrays.equals(trees[i].getDist(), single.getDist()) ||
+                        !Arrays.equals(trees[i].getParent(), single.getParent())) {
+                    bugFound(test);
+                    return;
+                }
+            }
+            if (graph.dijkstraBatch(new int[0], pool).length != 0)
+                bugFound(test);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    static void test51() throws java.io.IOException {
+        /* clear empties the heaps, which work as new afterwards */
+        String test = "test51";
+        for (int pool : new int[]{0, 16, 100000}) {
+            FibonacciHeap fibonacciHeap = new FibonacciHeap();
+            fibonacciHeap.setNodePool(pool);
+            FibonacciHeap.HeapNode[] nodes = new FibonacciHeap.HeapNode[1000];
+            for (int round = 0; round < 3; round++) {
+                heap = new Heap();
+                for (int i = 0; i < 1000; i++) {
+                    nodes[i] = fibonacciHeap.insert(7 * i % 1000);
+                    heap.insert(7 * i % 1000);
+                }
+                fibonacciHeap.deleteMin();
+                heap.deleteMin();
+                fibonacciHeap.decreaseKey(nodes[500], 10000);
+                fibonacciHeap.cancel(nodes[600]);
+                int[] generations = {nodes[1].getGeneration(), nodes[999].getGeneration()};
+                fibonacciHeap.clear();
+                if (!fibonacciHeap.isEmpty() || fibonacciHeap.size() != 0 || fibonacciHeap.findMin() != null ||
+                        fibonacciHeap.getTreeCount() != 0 || fibonacciHeap.getMarkedCount() != 0 ||
+                        fibonacciHeap.getCancelledCount() != 0 || fibonacciHeap.getPooledCount() > pool ||
+                        fibonacciHeap.isLive(nodes[1], generations[0]) ||
+                        fibonacciHeap.isLive(nodes[999], generations[1])) {
+                    bugFound(test);
+                    return;
+                }
+                //the cleared heap against a fresh reference
+                for (int i = 0; i < 1000; i += 3) {
+                    fibonacciHeap.insert(i);
+                }
+                heap = new Heap();
+                for (int i = 0; i < 1000; i += 3) {
+                    heap.insert(i);
+                }
+                while (!heap.isEmpty()) {
+                    if (heap.findMin() != fibonacciHeap.findMin().getKey() || heap.size() != fibonacciHeap.size()) {
+                        bugFound(test);
+                        return;
+                    }
+                    heap.deleteMin();
+                    fibonacciHeap.deleteMin();
+                }
+                if (!fibonacciHeap.isEmpty())
+                    bugFound(test);
+            }
+        }
+
+        //a dropped child is rejected by the checked operations, and does not come back into the heap
+        FibonacciHeap fibonacciHeap = new FibonacciHeap();
+        for (int i = 0; i < 8; i++) {
+            fibonacciHeap.insert(i);
+        }
+        fibonacciHeap.deleteMin();
+        FibonacciHeap.HeapNode oldChild = null;
+        for (FibonacciHeap.HeapNode root = fibonacciHeap.getHead(); root != null; root = root.getNext()) {
+            if (root.getChild() != null) {
+                oldChild = root.getChild();
+            }
+        }
+        int generation = oldChild.getGeneration();
+        fibonacciHeap.clear();
+        fibonacciHeap.insert(1);
+        fibonacciHeap.insert(2);
+        try {
+            fibonacciHeap.decreaseKey(oldChild, generation, 200);
+            bugFound(test);
+        } catch (IllegalStateException e) {
+            //expected
+        }
+        if (fibonacciHeap.size() != 2 || fibonacciHeap.getTreeCount() != 2 || fibonacciHeap.findMin().getKey() != 1)
+            bugFound(test);
+
+        //melded nodes stay live after the meld, and are dropped by the next clear
+        FibonacciHeap other = new FibonacciHeap();
+        FibonacciHeap.HeapNode melded = other.insert(5);
+        fibonacciHeap.meld(other);
+        other.clear();
+        if (!fibonacciHeap.isLive(melded, melded.getGeneration()))
+            bugFound(test);
+        fibonacciHeap.clear();
+        if (fibonacciHeap.isLive(melded, melded.getGeneration()))
+            bugFound(test);
+
+        ArrayFibonacciHeap arrayHeap = new ArrayFibonacciHeap();
+        for (int i = 0; i < 100; i++) {
+            arrayHeap.insert(100 - i);
+        }
+        arrayHeap.deleteMin();
+        arrayHeap.clear();
+        if (!arrayHeap.isEmpty() || arrayHeap.size() != 0 || arrayHeap.getTreeCount() != 0 ||
+                arrayHeap.insert(5) != 0 || arrayHeap.insert(3) != 1 || arrayHeap.getKey(arrayHeap.findMin()) != 3)
+            bugFound(test);
+
+        OffHeapFibonacciHeap offHeap = new OffHeapFibonacciHeap();
+        for (int i = 0; i < 100; i++) {
+            offHeap.insert(100 - i);
+        }
+        offHeap.deleteMin();
+        long firstHandle = offHeap.insert(0);
+        offHeap.clear();
+        if (!offHeap.isEmpty() || offHeap.size() != 0 || offHeap.getTreeCount() != 0 || offHeap.findMin() != OffHeapFibonacciHeap.NONE)
+            bugFound(test);
+        offHeap.insert(9);
+        long handle = offHeap.insert(4);
+        if (offHeap.findMin() != handle || offHeap.getKey(handle) != 4 || handle >= firstHandle)
+            bugFound(test);
+        offHeap.close();
+
+        IndexedFibonacciHeap indexed = new IndexedFibonacciHeap(10);
+        indexed.insert(3, 30);
+        indexed.insert(4, 40);
+        indexed.clear();
+        if (!indexed.isEmpty() || indexed.contains(3) || indexed.minId() != -1)
+            bugFound(test);
+        indexed.insert(3, 5);
+        if (indexed.deleteMin() != 3 || !indexed.isEmpty())
+            bugFound(test);
+    }
+
+    static void test52() {
+        /* meld and meldAll move the trees and empty the sources */
+        String test = "test52";
+        heap = new Heap();
+        FibonacciHeap fibonacciHeap = new FibonacciHeap();
+        FibonacciHeap empty = new FibonacciHeap();
+
+        //empty into empty, then a heap into an empty heap, then an empty heap into a heap
+        fibonacciHeap.meld(empty);
+        FibonacciHeap first = new FibonacciHeap();
+        for (int i = 0; i < 50; i++) {
+            first.insert(3 * i);
+            heap.insert(3 * i);
+        }
+        first.deleteMin();
+        heap.deleteMin();
+        fibonacciHeap.meld(first);
+        fibonacciHeap.meld(empty);
+        if (!first.isEmpty() || first.size() != 0 || first.findMin() != null || first.getTreeCount() != 0 ||
+                fibonacciHeap.getTail() == null || fibonacciHeap.getTail().getNext() != null ||
+                fibonacciHeap.size() != heap.size())
+            bugFound(test);
+
+        //the emptied heap is used again, and melded again
+        first.insert(-7);
+        heap.insert(-7);
+        fibonacciHeap.meld(first);
+        if (!first.isEmpty() || fibonacciHeap.findMin().getKey() != -7)
+            bugFound(test);
+
+        //shards with empty ones and repeats
+        FibonacciHeap[] shards = new FibonacciHeap[40];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = i % 7 == 3 ? shards[i - 1] : new FibonacciHeap();
+            for (int j = 0; j < i % 5; j++) {
+                int key = 1000 * i + 17 * j;
+                shards[i].insert(key);
+                heap.insert(key);
+            }
+        }
+        FibonacciHeap.HeapNode node = shards[4].insert(4);
+        heap.insert(-20);
+        fibonacciHeap.meldAll(shards);
+        fibonacciHeap.decreaseKey(node, 24);
+        for (FibonacciHeap shard : shards) {
+            if (!shard.isEmpty() || shard.getTail() != null)
+                bugFound(test);
+        }
+        try {
+            fibonacciHeap.meld(fibonacciHeap);
+            bugFound(test);
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+        try {
+            fibonacciHeap.meldAll(shards[0], fibonacciHeap);
+            bugFound(test);
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+
+        //a failed meldAll moves nothing
+        FibonacciHeap target = new FibonacciHeap();
+        target.insert(10);
+        FibonacciHeap s1 = new FibonacciHeap();
+        s1.insert(5);
+        FibonacciHeap s2 = new FibonacciHeap();
+        s2.insert(7);
+        try {
+            target.meldAll(s1, target, s2);
+            bugFound(test);
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+        if (target.size() != 1 || target.findMin().getKey() != 10 || s1.size() != 1 || s2.size() != 1 ||
+                s1.findMin().getKey() != 5)
+            bugFound(test);
+        while (!heap.isEmpty()) {
+            if (heap.findMin() != fibonacciHeap.findMin().getKey() || heap.size() != fibonacciHeap.size()) {
+                bugFound(test);
+                return;
+            }
+            heap.deleteMin();
+            fibonacciHeap.deleteMin();
+        }
+        if (!fibonacciHeap.isEmpty() || fibonacciHeap.getTail() != null)
+            bugFound(test);
+
+        LongFibonacciHeap longHeap = new LongFibonacciHeap();
+        LongFibonacciHeap longHeap2 = new LongFibonacciHeap();
+        longHeap2.insert(5L);
+        longHeap.meld(longHeap2);
+        longHeap.meld(new LongFibonacciHeap());
+        if (!longHeap2.isEmpty() || longHeap.getTail() == null || longHeap.findMin().getKey() != 5L)
+            bugFound(test);
+    }
+
+    static void test53() {
+        /* long heap : cascading cuts along a path of marked nodes longer than the stack */
+        String test = "test53";
+        int depth = 200000;
+        LongFibonacciHeap longHeap = new LongFibonacciHeap();
+        LongFibonacciHeap.HeapNode[] bottom = MarkedChain.build(longHeap, depth);
+        if (longHeap.getTreeCount() != 1 || longHeap.getMarkedCount() != depth)
+            bugFound(test);
+        longHeap.decreaseKey(bottom[0], bottom[0].getKey() + 1);
+        longHeap.decreaseKey(bottom[1], bottom[1].getKey() + 2);
+        if (longHeap.getMarkedCount() != 0 || longHeap.getTreeCount() != depth + 3 ||
+                longHeap.findMin().getKey() != -2)
+            bugFound(test);
+        long prev = Long.MIN_VALUE;
+        while (!longHeap.isEmpty()) {
+            long key = longHeap.findMin().getKey();
+            if (key < prev) {
+                bugFound(test);
+                return;
+            }
+            prev = key;
+            longHeap.deleteMin();
+        }
+    }
+
+    static void test54() {
+        /* long and double heaps : delete keeps the key */
+        String test = "test54";
+        //against the reference heap, with keys near the ends of the range
+        for (int kind = 0; kind < 2; kind++) {
+            heap = new Heap();
+            LongFibonacciHeap longs = new LongFibonacciHeap();
+            DoubleFibonacciHeap doubles = new DoubleFibonacciHeap();
+            LongFibonacciHeap.HeapNode[] longNodes = new LongFibonacciHeap.HeapNode[1000];
+            DoubleFibonacciHeap.HeapNode[] doubleNodes = new DoubleFibonacciHeap.HeapNode[1000];
+            long offset = kind == 0 ? Long.MIN_VALUE + 10 : 0;
+            for (int i = 0; i < 1000; i++) {
+                int key = 7 * i % 1000;
+                longNodes[i] = longs.insert(offset + key);
+                doubleNodes[i] = doubles.insert(key);
+                heap.insert(key);
+            }
+            longs.deleteMin();
+            doubles.deleteMin();
+            heap.deleteMin();
+            for (int i = 1; i < 1000; i += 3) {
+                longs.delete(longNodes[i]);
+                doubles.delete(doubleNodes[i]);
+                heap.delete(7 * i % 1000);
+                if (longNodes[i].getKey() != offset + 7 * i % 1000 || doubleNodes[i].getKey() != 7 * i % 1000) {
+                    bugFound(test);
+                    return;
+                }
+            }
+            while (!heap.isEmpty()) {
+                if (longs.findMin().getKey() != offset + heap.findMin() || doubles.findMin().getKey() != heap.findMin()) {
+                    bugFound(test);
+                    return;
+                }
+                heap.deleteMin();
+                longs.deleteMin();
+                doubles.deleteMin();
+            }
+            if (!longs.isEmpty() || !doubles.isEmpty())
+                bugFound(test);
+        }
+    }
+
     static void bugFound(String test) {
         System.out.println("Bug found in " + test);
         grade -= testScore;
@@ -0,0 +1,164 @@
+/**
+ * ValueFibonacciHeap
+ *
+ * A Fibonacci Heap over integer keys where every node also carries a value of type V.
+ * The value is stored in the node itself, so no side map from nodes to values is needed.
+ * All the nodes of the heap must be ValueNodes, so it should only be melded with other ValueFibonacciHeaps.
+ */
+public class ValueFibonacciHeap<V> extends FibonacciHeap {
+
+   /**
+    * public ValueNode<V> insert(int key, V value)
+    *
+    * Creates a node which contains the given key and value, and inserts it into the heap.
+    *
+    * Returns the newly created node.
+    *
+    * complexity : O(1)
+    */
+    public ValueNode<V> insert(int key, V value) {
+        ValueNode<V> newNode = new ValueNode<V>(key, value);
+        this.insertNode(newNode);
+        return newNode;
+    }
+
+   /**
+    * public ValueNode<V> insert(int key)
+    *
+    * Inserts the given key with a null value.
+    *
+    * complexity : O(1)
+    */
+    @Override
+    public ValueNode<V> insert(int key) {
+        return this.insert(key, null);
+    }
+
+   /**
+    * ValueNode<V> createNode(int key)
+    *
+    * Creates a node with a null value, for keys inserted without a value (insert(key), insertAll).
+    *
+    * complexity : O(1)
+    */
+    @Override
+    ValueNode<V> createNode(int key) {
+        return new ValueNode<V>(key, null);
+    }
+
+   /**
+    * public ValueNode<V> findMin()
+    *
+    * Returns the node of the heap whose key is minimal, or null if the heap is empty.
+    *
+    * complexity : O(1)
+    */
+    @Override
+    @SuppressWarnings("unchecked")
+    public ValueNode<V> findMin() {
+        return (ValueNode<V>) super.findMin();
+    }
+
+   /**
+    * public V findMinValue()
+    *
+    * Returns the value of the node whose key is minimal, or null if the heap is empty.
+    *
+    * complexity : O(1)
+    */
+    public V findMinValue() {
+        ValueNode<V> min = this.findMin();
+        return min == null ? null : min.getValue();
+    }
+
+   /**
+    * public V deleteMinValue()
+    *
+    * Deletes the node containing the minimum key and returns its value (null if the heap is empty).
+    *
+    * complexity : O(n)
+    */
+    public V deleteMinValue() {
+        V value = this.findMinValue();
+        this.deleteMin();
+        return value;
+    }
+
+   /**
+    * public void meld (ValueFibonacciHeap<V> heap2)
+    *
+    * Melds heap2 with the current heap. heap2 is empty afterwards.
+    *
+    * complexity : O(1)
+    */
+    public void meld (ValueFibonacciHeap<V> heap2) {
+        super.meld(heap2);
+    }
+
+   /**
+    * public void meld (FibonacciHeap heap2)
+    *
+    * Melds heap2 with the current heap if it is a ValueFibonacciHeap, and throws
+    * IllegalArgumentException otherwise - its nodes carry no value.
+    *
+    * complexity : O(1)
+    */
+    @Override
+    public void meld (FibonacciHeap heap2) {
+        checkValueHeap(heap2);
+        super.meld(heap2);
+    }
+
+   /**
+    * public void meldAll (FibonacciHeap... heaps)
+    *
+    * Melds all the given heaps with the current heap, as meld does. Throws IllegalArgumentException,
+    * before anything is melded, if one of them is not a ValueFibonacciHeap.
+    *
+    * complexity : O(k), k = heaps.length
+    */
+    @Override
+    public void meldAll (FibonacciHeap... heaps) {
+        for (FibonacciHeap heap2 : heaps) {
+            checkValueHeap(heap2);
+        }
+        super.meldAll(heaps);
+    }
+
+    private static void checkValueHeap(FibonacciHeap heap2) {
+        if (!(heap2 instanceof ValueFibonacciHeap)) {
+            throw new IllegalArgumentException("a ValueFibonacciHeap can only be melded with a ValueFibonacciHeap");
+        }
+    }
+
+   /**
+    * public static class ValueNode<V>
+    *
+    * A HeapNode which also holds a value.
+    */
+    public static class ValueNode<V> extends HeapNode {
+
+        private V value;
+
+        public ValueNode(int key, V value) {
+            super(key);
+            this.value = value;
+        }
+
+       /**
+        * return node value
+        * complexity : O(1)
+        */
+        public V getValue() {
+            return this.value;
+        }
+
+       /**
+        * update node value to v
+        * complexity : O(1)
+        */
+        public void setValue(V v) {
+            this.value = v;
+        }
+    }
+}